@@ -10,6 +10,11 @@ public class AppointmentConfig {
     private int defaultCancellationLimitHours = 24;
     private int gracePeriodMinutes = 15;
     private boolean allowPastCancellations = false;
+
+    // Optimistic-lock retry for appointment mutations
+    private int retryMaxAttempts = 4;
+    private long retryInitialBackoffMs = 20;
+    private long retryMaxBackoffMs = 500;
     
     // Getters and Setters
     public int getDefaultCancellationLimitHours() {
@@ -35,4 +40,28 @@ public class AppointmentConfig {
     public void setAllowPastCancellations(boolean allowPastCancellations) {
         this.allowPastCancellations = allowPastCancellations;
     }
+
+    public int getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+    
+    public void setRetryMaxAttempts(int retryMaxAttempts) {
+        this.retryMaxAttempts = retryMaxAttempts;
+    }
+    
+    public long getRetryInitialBackoffMs() {
+        return retryInitialBackoffMs;
+    }
+    
+    public void setRetryInitialBackoffMs(long retryInitialBackoffMs) {
+        this.retryInitialBackoffMs = retryInitialBackoffMs;
+    }
+    
+    public long getRetryMaxBackoffMs() {
+        return retryMaxBackoffMs;
+    }
+    
+    public void setRetryMaxBackoffMs(long retryMaxBackoffMs) {
+        this.retryMaxBackoffMs = retryMaxBackoffMs;
+    }
 } 
\ No newline at end of file
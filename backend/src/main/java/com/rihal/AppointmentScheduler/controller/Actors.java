@@ -0,0 +1,40 @@
+package com.rihal.AppointmentScheduler.controller;
+
+import java.util.UUID;
+
+import org.springframework.security.core.Authentication;
+
+import com.rihal.AppointmentScheduler.service.UserIds;
+
+/**
+ * Who is calling. The authenticated name is the caller's user UUID (see {@link UserIds});
+ * administrators carry the ADMIN role.
+ */
+final class Actors {
+
+    private static final String ADMIN = "ROLE_ADMIN";
+
+    private Actors() {}
+
+    static boolean isAdmin(Authentication authentication) {
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(a -> ADMIN.equals(a.getAuthority()));
+    }
+
+    /** True if the caller is one of {@code userIds} or an administrator. */
+    static boolean isAnyOf(Authentication authentication, UUID... userIds) {
+        if (authentication == null) {
+            return false;
+        }
+        for (UUID userId : userIds) {
+            if (userId != null && userId.toString().equals(authentication.getName())) {
+                return true;
+            }
+        }
+        return isAdmin(authentication);
+    }
+
+    static boolean isUser(Authentication authentication, Long userId) {
+        return isAnyOf(authentication, UserIds.toUuid(userId));
+    }
+}
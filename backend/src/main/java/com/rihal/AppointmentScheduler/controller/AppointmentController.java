@@ -1,13 +1,20 @@
 package com.rihal.AppointmentScheduler.controller;
 
-import com.rihal.appointments.dto.AppointmentDTO;
-import com.rihal.appointments.model.AppointmentStatus;
-import com.rihal.appointments.service.AppointmentService;
+import com.rihal.AppointmentScheduler.dto.AppointmentDTO;
+import com.rihal.AppointmentScheduler.dto.RescheduleRequest;
+import com.rihal.AppointmentScheduler.model.Appointment;
+import com.rihal.AppointmentScheduler.model.AppointmentStatus;
+import com.rihal.AppointmentScheduler.service.AppointmentService;
+import com.rihal.AppointmentScheduler.service.BookingService;
+import com.rihal.AppointmentScheduler.service.ChangeVersions;
+import com.rihal.AppointmentScheduler.service.IdempotencyService;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.*;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -19,23 +26,53 @@ import java.util.UUID;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final IdempotencyService idempotencyService;
+    private final BookingService bookingService;
+    private final ChangeVersions versions;
 
-    public AppointmentController(AppointmentService appointmentService) {
+    public AppointmentController(AppointmentService appointmentService, IdempotencyService idempotencyService,
+                                 BookingService bookingService, ChangeVersions versions) {
         this.appointmentService = appointmentService;
+        this.idempotencyService = idempotencyService;
+        this.bookingService = bookingService;
+        this.versions = versions;
     }
 
     // ✅ Cancel appointment
     @DeleteMapping("/{id}/cancel")
     public ResponseEntity<?> cancelAppointment(
             @PathVariable UUID id,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
-        try {
-            UUID userId = UUID.fromString(authentication.getName());
-            String result = appointmentService.cancelAppointment(id, userId);
-            return ResponseEntity.ok(Map.of("message", result));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        String scope = idempotencyService.scope("DELETE /api/appointments/" + id + "/cancel", authentication.getName(), null);
+        return idempotencyService.execute(idempotencyKey, scope, () -> {
+            try {
+                UUID userId = UUID.fromString(authentication.getName());
+                String result = appointmentService.cancelAppointment(id, userId);
+                return ResponseEntity.ok(Map.of("message", result));
+            } catch (OptimisticLockingFailureException e) {
+                // Retries exhausted: 409 from GlobalExceptionHandler, not a bad request
+                throw e;
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+
+    // ✅ Reschedule appointment (customer or provider); 409 if the new slot is taken
+    @PostMapping("/{id}/reschedule")
+    public ResponseEntity<?> rescheduleAppointment(
+            @PathVariable UUID id,
+            @RequestBody RescheduleRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        String scope = idempotencyService.scope("POST /api/appointments/" + id + "/reschedule",
+                authentication.getName(), request);
+        return idempotencyService.execute(idempotencyKey, scope, () -> {
+            UUID actorId = UUID.fromString(authentication.getName());
+            Appointment appointment = bookingService.reschedule(id, request, actorId);
+            return ResponseEntity.ok(AppointmentDTO.from(appointment));
+        });
     }
 
     // ✅ Get appointment by ID
@@ -48,7 +85,7 @@ public class AppointmentController {
         }
     }
 
-    // ✅ Customer appointments with pagination + filters
+    // ✅ Customer appointments with pagination + filters; 304 while the customer's appointments are unchanged
     @GetMapping("/customer/{customerId}")
     public ResponseEntity<?> customerAppointments(
             @PathVariable UUID customerId,
@@ -57,18 +94,22 @@ public class AppointmentController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "appointmentTime,asc") String sort
+            @RequestParam(defaultValue = "appointmentTime,asc") String sort,
+            WebRequest request
     ) {
-        try {
-            Pageable pageable = PageRequest.of(page, size, Sort.by(parseSort(sort)));
-            Page<AppointmentDTO> result = appointmentService.getForCustomer(customerId, status, from, to, pageable);
-            return ResponseEntity.ok(result);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        String etag = versions.customerETag(customerId, status, from, to, page, size, sort);
+        return ConditionalGet.<Object>respond(request, etag, () -> {
+            try {
+                Pageable pageable = PageRequest.of(page, size, Sort.by(parseSort(sort)));
+                Page<AppointmentDTO> result = appointmentService.getForCustomer(customerId, status, from, to, pageable);
+                return ResponseEntity.ok(result);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
     }
 
-    // ✅ Provider appointments with pagination + filters
+    // ✅ Provider appointments with pagination + filters; 304 while the provider's appointments are unchanged
     @GetMapping("/provider/{providerId}")
     public ResponseEntity<?> providerAppointments(
             @PathVariable UUID providerId,
@@ -77,15 +118,19 @@ public class AppointmentController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "appointmentTime,asc") String sort
+            @RequestParam(defaultValue = "appointmentTime,asc") String sort,
+            WebRequest request
     ) {
-        try {
-            Pageable pageable = PageRequest.of(page, size, Sort.by(parseSort(sort)));
-            Page<AppointmentDTO> result = appointmentService.getForProvider(providerId, status, from, to, pageable);
-            return ResponseEntity.ok(result);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        String etag = versions.providerETag(providerId, status, from, to, page, size, sort);
+        return ConditionalGet.<Object>respond(request, etag, () -> {
+            try {
+                Pageable pageable = PageRequest.of(page, size, Sort.by(parseSort(sort)));
+                Page<AppointmentDTO> result = appointmentService.getForProvider(providerId, status, from, to, pageable);
+                return ResponseEntity.ok(result);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
     }
 
     // ✅ Helper for sorting
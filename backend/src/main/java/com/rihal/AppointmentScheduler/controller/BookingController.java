@@ -1,10 +1,33 @@
 package com.rihal.AppointmentScheduler.controller;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.rihal.AppointmentScheduler.dto.AppointmentDTO;
+import com.rihal.AppointmentScheduler.dto.BatchBookingResult;
+import com.rihal.AppointmentScheduler.dto.BookingRequest;
+import com.rihal.AppointmentScheduler.dto.HoldDTO;
+import com.rihal.AppointmentScheduler.dto.SlotDTO;
+import com.rihal.AppointmentScheduler.model.Appointment;
 import com.rihal.AppointmentScheduler.service.BookingService;
+import com.rihal.AppointmentScheduler.service.IdempotencyService;
 import com.rihal.AppointmentScheduler.service.SlotService;
 
 @RestController
@@ -12,16 +35,139 @@ import com.rihal.AppointmentScheduler.service.SlotService;
 @CrossOrigin(origins = "http://localhost:5173")
 public class BookingController {
 
+    private static final int DEFAULT_SEARCH_DAYS = 30;
+
     private final BookingService bookingService;
     private final SlotService slotService;
+    private final IdempotencyService idempotencyService;
 
-    public BookingController(BookingService bookingService, SlotService slotService) {
+    public BookingController(BookingService bookingService, SlotService slotService,
+                             IdempotencyService idempotencyService) {
         this.bookingService = bookingService;
         this.slotService = slotService;
+        this.idempotencyService = idempotencyService;
     }
 
     // Note: Cancel endpoint has been moved to AppointmentController for consolidation
-    // ... slots + createBooking remain same
 
-    // Removed duplicate cancel endpoint - now handled by AppointmentController
+    /**
+     * Book a slot; responds 409 if it was taken in the meantime
+     * A retry by the same user with the same body and Idempotency-Key header gets the stored
+     * response back; the same key with another body is rejected with 400.
+     * POST /api/bookings {"customerId": "...", "providerId": "...", "date": "2025-08-14", "startTime": "09:30"}
+     */
+    @PostMapping("/bookings")
+    public ResponseEntity<?> createBooking(@RequestBody BookingRequest request,
+                                           @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                           Authentication authentication) {
+        String scope = idempotencyService.scope("POST /api/bookings", authentication.getName(), request);
+        return idempotencyService.execute(idempotencyKey, scope, () -> {
+            Appointment appointment = bookingService.book(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(AppointmentDTO.from(appointment));
+        });
+    }
+
+    /**
+     * Book many slots at once (imports, group bookings); each item is reported separately
+     * POST /api/bookings/batch [{"customerId": "...", "providerId": "...", "date": "2025-08-14", "startTime": "09:30"}, ...]
+     */
+    @PostMapping("/bookings/batch")
+    public ResponseEntity<?> createBookings(@RequestBody List<BookingRequest> requests,
+                                            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                            Authentication authentication) {
+        String scope = idempotencyService.scope("POST /api/bookings/batch", authentication.getName(), requests);
+        return idempotencyService.execute(idempotencyKey, scope, () -> {
+            List<BatchBookingResult> results = bookingService.bookBatch(requests);
+            long booked = results.stream().filter(r -> r.booked).count();
+            return ResponseEntity.ok(Map.of(
+                    "booked", booked,
+                    "rejected", results.size() - booked,
+                    "results", results
+            ));
+        });
+    }
+
+    /**
+     * Hold a slot for a few minutes while the customer confirms (the customer themselves or
+     * an admin); 409 if it is taken or held, 400 once the customer holds holds.max-per-customer
+     * POST /api/holds {"customerId": "...", "providerId": "...", "date": "2025-08-14", "startTime": "09:30"}
+     */
+    @PostMapping("/holds")
+    public ResponseEntity<HoldDTO> createHold(@RequestBody BookingRequest request, Authentication authentication) {
+        if (!Actors.isAnyOf(authentication, request.getCustomerId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(HoldDTO.from(bookingService.hold(request)));
+    }
+
+    /**
+     * Book a held slot (its customer or an admin); 404 once the hold has expired
+     * POST /api/holds/{holdId}/confirm
+     */
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<?> confirmHold(@PathVariable UUID holdId,
+                                         @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                         Authentication authentication) {
+        String scope = idempotencyService.scope("POST /api/holds/" + holdId + "/confirm", authentication.getName(), null);
+        return idempotencyService.execute(idempotencyKey, scope, () -> {
+            if (!Actors.isAnyOf(authentication, bookingService.getHold(holdId).customerId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            Appointment appointment = bookingService.confirmHold(holdId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(AppointmentDTO.from(appointment));
+        });
+    }
+
+    /**
+     * Give a held slot back before the hold expires (its customer or an admin)
+     * DELETE /api/holds/{holdId}
+     */
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable UUID holdId, Authentication authentication) {
+        if (!Actors.isAnyOf(authentication, bookingService.getHold(holdId).customerId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        bookingService.releaseHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Free slots of a provider on one day, served from the in-memory slot index
+     * GET /api/providers/{providerId}/slots?date=2025-08-14
+     */
+    @GetMapping("/providers/{providerId}/slots")
+    public ResponseEntity<?> slots(@PathVariable UUID providerId,
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(Map.of(
+                "date", date,
+                "slots", slotService.getSlots(providerId, date)
+        ));
+    }
+
+    /**
+     * First N free slots of a provider across a date window ("next available")
+     * GET /api/providers/{providerId}/slots/next?from=2025-08-14&to=2025-09-14&limit=10
+     */
+    @GetMapping("/providers/{providerId}/slots/next")
+    public ResponseEntity<List<SlotDTO>> nextSlots(@PathVariable UUID providerId,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                   @RequestParam(defaultValue = "10") int limit) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(DEFAULT_SEARCH_DAYS);
+        return ResponseEntity.ok(slotService.findNextFree(providerId, start, end, limit));
+    }
+
+    /**
+     * Earliest free slots across all providers, for customers without a preference
+     * GET /api/slots/first-available?from=2025-08-14&to=2025-08-21&limit=10
+     */
+    @GetMapping("/slots/first-available")
+    public ResponseEntity<List<SlotDTO>> firstAvailable(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(DEFAULT_SEARCH_DAYS);
+        return ResponseEntity.ok(slotService.findFirstAvailable(start, end, limit));
+    }
 }
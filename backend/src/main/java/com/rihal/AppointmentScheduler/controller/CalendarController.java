@@ -1,12 +1,14 @@
 package com.rihal.AppointmentScheduler.controller;
 
 import com.rihal.AppointmentScheduler.dto.CalendarResponse;
-import com.rihal.AppointmentScheduler.dto.DayBucketDTO;
-import com.rihal.AppointmentScheduler.dto.MonthBucketDTO;
-import com.rihal.AppointmentScheduler.dto.WeekBucketDTO;
+import com.rihal.AppointmentScheduler.service.CalendarCache;
 import com.rihal.AppointmentScheduler.service.CalendarService;
+import com.rihal.AppointmentScheduler.service.ChangeVersions;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.Locale;
@@ -18,52 +20,103 @@ import java.util.UUID;
 public class CalendarController {
 
     private final CalendarService service;
+    private final CalendarCache cache;
+    private final ChangeVersions versions;
 
-    public CalendarController(CalendarService service) {
+    public CalendarController(CalendarService service, CalendarCache cache, ChangeVersions versions) {
         this.service = service;
+        this.cache = cache;
+        this.versions = versions;
     }
 
     /**
-     * Group by day
-     * GET /api/calendar/provider/{providerId}/daily?start=2025-08-01&end=2025-08-31&includeCancelled=false
+     * Group by day; countsOnly=true returns only the total of each bucket (heatmaps)
+     * GET /api/calendar/provider/{providerId}/daily?start=2025-08-01&end=2025-08-31&includeCancelled=false&countsOnly=false
      */
     @GetMapping("/provider/{providerId}/daily")
-    public ResponseEntity<CalendarResponse<DayBucketDTO>> byDay(@PathVariable UUID providerId,
-                                                                @RequestParam String start,
-                                                                @RequestParam String end,
-                                                                @RequestParam(defaultValue = "false") boolean includeCancelled) {
+    public ResponseEntity<CalendarResponse<?>> byDay(@PathVariable UUID providerId,
+                                                     @RequestParam String start,
+                                                     @RequestParam String end,
+                                                     @RequestParam(defaultValue = "false") boolean includeCancelled,
+                                                     @RequestParam(defaultValue = "false") boolean countsOnly,
+                                                     WebRequest request) {
         LocalDate s = LocalDate.parse(start);
         LocalDate e = LocalDate.parse(end);
-        return ResponseEntity.ok(service.daily(providerId, s, e, includeCancelled));
+        long version = versions.providerVersion(providerId);
+        CalendarCache.Key key = CalendarCache.Key.of(providerId, version, s, e, CalendarService.Granularity.DAY,
+                countsOnly, includeCancelled, null);
+        return ConditionalGet.respond(request, versions.providerETagAt(providerId, version, key),
+                () -> ResponseEntity.ok(countsOnly ? cache.get(key, () -> service.dailyCounts(providerId, s, e, includeCancelled))
+                        : cache.get(key, () -> service.daily(providerId, s, e, includeCancelled))));
     }
 
     /**
      * Group by week (ISO, Locale-aware)
-     * GET /api/calendar/provider/{providerId}/weekly?start=2025-07-01&end=2025-08-31&includeCancelled=false&locale=en-US
+     * GET /api/calendar/provider/{providerId}/weekly?start=2025-07-01&end=2025-08-31&includeCancelled=false&locale=en-US&countsOnly=false
      */
     @GetMapping("/provider/{providerId}/weekly")
-    public ResponseEntity<CalendarResponse<WeekBucketDTO>> byWeek(@PathVariable UUID providerId,
-                                                                  @RequestParam String start,
-                                                                  @RequestParam String end,
-                                                                  @RequestParam(defaultValue = "false") boolean includeCancelled,
-                                                                  @RequestParam(defaultValue = "en-US") String locale) {
+    public ResponseEntity<CalendarResponse<?>> byWeek(@PathVariable UUID providerId,
+                                                      @RequestParam String start,
+                                                      @RequestParam String end,
+                                                      @RequestParam(defaultValue = "false") boolean includeCancelled,
+                                                      @RequestParam(defaultValue = "en-US") String locale,
+                                                      @RequestParam(defaultValue = "false") boolean countsOnly,
+                                                      WebRequest request) {
         LocalDate s = LocalDate.parse(start);
         LocalDate e = LocalDate.parse(end);
         Locale loc = Locale.forLanguageTag(locale);
-        return ResponseEntity.ok(service.weekly(providerId, s, e, includeCancelled, loc));
+        long version = versions.providerVersion(providerId);
+        CalendarCache.Key key = CalendarCache.Key.of(providerId, version, s, e, CalendarService.Granularity.WEEK,
+                countsOnly, includeCancelled, loc);
+        return ConditionalGet.respond(request, versions.providerETagAt(providerId, version, key),
+                () -> ResponseEntity.ok(countsOnly ? cache.get(key, () -> service.weeklyCounts(providerId, s, e, includeCancelled, loc))
+                        : cache.get(key, () -> service.weekly(providerId, s, e, includeCancelled, loc))));
     }
 
     /**
      * Group by month
-     * GET /api/calendar/provider/{providerId}/monthly?start=2025-01-01&end=2025-12-31&includeCancelled=true
+     * GET /api/calendar/provider/{providerId}/monthly?start=2025-01-01&end=2025-12-31&includeCancelled=true&countsOnly=false
      */
     @GetMapping("/provider/{providerId}/monthly")
-    public ResponseEntity<CalendarResponse<MonthBucketDTO>> byMonth(@PathVariable UUID providerId,
-                                                                    @RequestParam String start,
-                                                                    @RequestParam String end,
-                                                                    @RequestParam(defaultValue = "false") boolean includeCancelled) {
+    public ResponseEntity<CalendarResponse<?>> byMonth(@PathVariable UUID providerId,
+                                                       @RequestParam String start,
+                                                       @RequestParam String end,
+                                                       @RequestParam(defaultValue = "false") boolean includeCancelled,
+                                                       @RequestParam(defaultValue = "false") boolean countsOnly,
+                                                       WebRequest request) {
         LocalDate s = LocalDate.parse(start);
         LocalDate e = LocalDate.parse(end);
-        return ResponseEntity.ok(service.monthly(providerId, s, e, includeCancelled));
+        long version = versions.providerVersion(providerId);
+        CalendarCache.Key key = CalendarCache.Key.of(providerId, version, s, e, CalendarService.Granularity.MONTH,
+                countsOnly, includeCancelled, null);
+        return ConditionalGet.respond(request, versions.providerETagAt(providerId, version, key),
+                () -> ResponseEntity.ok(countsOnly ? cache.get(key, () -> service.monthlyCounts(providerId, s, e, includeCancelled))
+                        : cache.get(key, () -> service.monthly(providerId, s, e, includeCancelled))));
+    }
+
+    /**
+     * Same responses as above, written bucket by bucket while the rows are read (long ranges)
+     * GET /api/calendar/provider/{providerId}/monthly?start=2020-01-01&end=2025-12-31&stream=true
+     */
+    @GetMapping(value = "/provider/{providerId}/{granularity:daily|weekly|monthly}", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamed(@PathVariable UUID providerId,
+                                                          @PathVariable String granularity,
+                                                          @RequestParam String start,
+                                                          @RequestParam String end,
+                                                          @RequestParam(defaultValue = "false") boolean includeCancelled,
+                                                          @RequestParam(defaultValue = "en-US") String locale,
+                                                          WebRequest request) {
+        CalendarService.Granularity g = switch (granularity) {
+            case "daily" -> CalendarService.Granularity.DAY;
+            case "weekly" -> CalendarService.Granularity.WEEK;
+            default -> CalendarService.Granularity.MONTH;
+        };
+        LocalDate s = LocalDate.parse(start);
+        LocalDate e = LocalDate.parse(end);
+        Locale loc = Locale.forLanguageTag(locale);
+        StreamingResponseBody body = out -> service.write(g, providerId, s, e, includeCancelled, loc, out);
+        String etag = versions.providerETag(providerId, "stream", g, s, e, includeCancelled, loc);
+        return ConditionalGet.respond(request, etag,
+                () -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body));
     }
 }
@@ -0,0 +1,57 @@
+package com.rihal.AppointmentScheduler.controller;
+
+import com.rihal.AppointmentScheduler.model.User;
+import com.rihal.AppointmentScheduler.service.CalendarFeedService;
+import com.rihal.AppointmentScheduler.service.ChangeVersions;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Subscribable iCalendar feeds. The token in the URL is the only credential (see
+ * SecurityConfig), so calendar apps can poll without a password.
+ */
+@RestController
+@RequestMapping("/api/calendar/feeds")
+public class CalendarFeedController {
+
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final CalendarFeedService feeds;
+    private final ChangeVersions versions;
+
+    public CalendarFeedController(CalendarFeedService feeds, ChangeVersions versions) {
+        this.feeds = feeds;
+        this.versions = versions;
+    }
+
+    /**
+     * The provider's or customer's appointments around today; 304 while nothing changed
+     * GET /api/calendar/feeds/{token}.ics
+     */
+    @GetMapping("/{token}.ics")
+    public ResponseEntity<StreamingResponseBody> feed(@PathVariable String token, WebRequest request) {
+        CalendarFeedService.Feed feed = feeds.resolve(token).orElse(null);
+        if (feed == null) {
+            return ResponseEntity.notFound().build();
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate from = feeds.windowStart(today);
+        LocalDate to = feeds.windowEnd(today);
+        // The window moves every day, and a new token must not revalidate an old copy
+        String etag = feed.role() == User.Role.PROVIDER
+                ? versions.providerETag(feed.ownerId(), "ics", token, from, to)
+                : versions.customerETag(feed.ownerId(), "ics", token, from, to);
+        StreamingResponseBody body = out -> feeds.write(feed, from, to, out);
+        return ConditionalGet.respond(request, etag, () -> ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"appointments.ics\"")
+                .body(body));
+    }
+}
@@ -0,0 +1,54 @@
+package com.rihal.AppointmentScheduler.controller;
+
+import java.util.function.Supplier;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Answers GETs with 304 when the client's If-None-Match still matches, before the body
+ * is computed. Responses must be revalidated on every use ({@code no-cache}), so clients
+ * never see data older than the ETag check.
+ */
+final class ConditionalGet {
+
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {}
+
+    static <T> ResponseEntity<T> respond(WebRequest request, String etag, Supplier<ResponseEntity<T>> response) {
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        ResponseEntity<T> fresh = response.get();
+        if (!fresh.getStatusCode().is2xxSuccessful()) {
+            return fresh;
+        }
+        return ResponseEntity.status(fresh.getStatusCode())
+                .headers(fresh.getHeaders())
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(fresh.getBody());
+    }
+
+    // If-None-Match uses the weak comparison: W/ prefixes are ignored
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,67 @@
+package com.rihal.AppointmentScheduler.controller;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.rihal.AppointmentScheduler.dto.NotificationDTO;
+import com.rihal.AppointmentScheduler.model.NotificationLog;
+import com.rihal.AppointmentScheduler.service.NotificationArchive;
+import com.rihal.AppointmentScheduler.service.NotificationService;
+
+@RestController
+@RequestMapping("/api/notifications")
+@CrossOrigin(origins = "http://localhost:5173")
+public class NotificationController {
+
+    private final NotificationService notificationService;
+    private final NotificationArchive notificationArchive;
+
+    public NotificationController(NotificationService notificationService, NotificationArchive notificationArchive) {
+        this.notificationService = notificationService;
+        this.notificationArchive = notificationArchive;
+    }
+
+    /**
+     * Notifications of a user, newest first, rendered from their templates
+     * GET /api/notifications/user/{userId}
+     */
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<List<NotificationDTO>> forUser(@PathVariable UUID userId) {
+        return ResponseEntity.ok(toDtos(notificationService.forRecipient(userId)));
+    }
+
+    /**
+     * Notifications of a user that were moved to the archive, oldest first
+     * GET /api/notifications/user/{userId}/archive?from=2025-01&to=2025-03
+     */
+    @GetMapping("/user/{userId}/archive")
+    public ResponseEntity<List<NotificationDTO>> archivedForUser(@PathVariable UUID userId,
+                                                                 @RequestParam YearMonth from,
+                                                                 @RequestParam YearMonth to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        return ResponseEntity.ok(toDtos(notificationArchive.find(userId, from, to)));
+    }
+
+    /**
+     * GET /api/notifications/appointment/{appointmentId}
+     */
+    @GetMapping("/appointment/{appointmentId}")
+    public ResponseEntity<List<NotificationDTO>> forAppointment(@PathVariable UUID appointmentId) {
+        return ResponseEntity.ok(toDtos(notificationService.forAppointment(appointmentId)));
+    }
+
+    private List<NotificationDTO> toDtos(List<NotificationLog> logs) {
+        return logs.stream().map(log -> NotificationDTO.from(log, notificationService.render(log))).toList();
+    }
+}
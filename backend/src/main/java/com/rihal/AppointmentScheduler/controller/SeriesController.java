@@ -0,0 +1,97 @@
+package com.rihal.AppointmentScheduler.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.rihal.AppointmentScheduler.dto.AppointmentDTO;
+import com.rihal.AppointmentScheduler.dto.SeriesDTO;
+import com.rihal.AppointmentScheduler.dto.SeriesRequest;
+import com.rihal.AppointmentScheduler.model.AppointmentSeries;
+import com.rihal.AppointmentScheduler.service.AppointmentSeriesService;
+
+@RestController
+@RequestMapping("/api/series")
+@CrossOrigin(origins = "http://localhost:5173")
+public class SeriesController {
+
+    private final AppointmentSeriesService seriesService;
+
+    public SeriesController(AppointmentSeriesService seriesService) {
+        this.seriesService = seriesService;
+    }
+
+    /**
+     * Book a weekly/biweekly series; 409 listing the dates if any occurrence is not free
+     * POST /api/series {"customerId": "...", "providerId": "...", "startDate": "2025-08-14", "startTime": "09:30", "intervalWeeks": 1, "count": 12}
+     */
+    @PostMapping
+    public ResponseEntity<SeriesDTO> create(@RequestBody SeriesRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(SeriesDTO.from(seriesService.create(request)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<SeriesDTO> get(@PathVariable UUID id) {
+        return ResponseEntity.ok(SeriesDTO.from(seriesService.get(id)));
+    }
+
+    @GetMapping("/customer/{customerId}")
+    public ResponseEntity<List<SeriesDTO>> forCustomer(@PathVariable UUID customerId) {
+        return ResponseEntity.ok(seriesService.forCustomer(customerId).stream().map(SeriesDTO::from).toList());
+    }
+
+    /**
+     * Occurrences in a window, expanded on the fly, with cancelled exceptions included
+     * GET /api/series/{id}/occurrences?from=2025-08-01&to=2025-10-31
+     */
+    @GetMapping("/{id}/occurrences")
+    public ResponseEntity<List<AppointmentDTO>> occurrences(@PathVariable UUID id,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(seriesService.occurrences(id, from, to).stream().map(AppointmentDTO::from).toList());
+    }
+
+    /**
+     * End the series from today on (its customer, its provider or an admin)
+     * DELETE /api/series/{id}
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<SeriesDTO> cancel(@PathVariable UUID id, Authentication authentication) {
+        if (!mayChange(seriesService.get(id), authentication)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(SeriesDTO.from(seriesService.cancel(id)));
+    }
+
+    /**
+     * Cancel a single occurrence (its customer, its provider or an admin)
+     * DELETE /api/series/{id}/occurrences/2025-08-21
+     */
+    @DeleteMapping("/{id}/occurrences/{date}")
+    public ResponseEntity<AppointmentDTO> cancelOccurrence(@PathVariable UUID id,
+                                                          @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                          Authentication authentication) {
+        if (!mayChange(seriesService.get(id), authentication)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(AppointmentDTO.from(seriesService.cancelOccurrence(id, date)));
+    }
+
+    private static boolean mayChange(AppointmentSeries series, Authentication authentication) {
+        return Actors.isAnyOf(authentication, series.getCustomerId(), series.getProviderId());
+    }
+}
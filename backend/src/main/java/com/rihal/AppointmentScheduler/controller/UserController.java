@@ -1,19 +1,30 @@
 package com.rihal.AppointmentScheduler.controller;
 
 import com.rihal.AppointmentScheduler.dto.UserDTO;
+import com.rihal.AppointmentScheduler.model.NotificationLog.Channel;
 import com.rihal.AppointmentScheduler.model.User;
 import com.rihal.AppointmentScheduler.repository.UserRepository;
+import com.rihal.AppointmentScheduler.service.CalendarFeedService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
     private final UserRepository userRepository;
+    private final CalendarFeedService calendarFeeds;
 
-    public UserController(UserRepository userRepository) {
+    public UserController(UserRepository userRepository, CalendarFeedService calendarFeeds) {
         this.userRepository = userRepository;
+        this.calendarFeeds = calendarFeeds;
     }
 
     @PostMapping
@@ -34,4 +45,73 @@ public class UserController {
         User savedUser = userRepository.save(user);
         return ResponseEntity.ok(savedUser);
     }
+
+    /**
+     * Choose the channels a user is notified on (the user themselves or an admin); an empty
+     * list turns every channel off
+     * PUT /api/users/{id}/notification-channels ["IN_APP", "EMAIL", "SMS"]
+     */
+    @PutMapping("/{id}/notification-channels")
+    public ResponseEntity<?> setNotificationChannels(@PathVariable Long id, @RequestBody List<Channel> channels,
+                                                     Authentication authentication) {
+        if (!Actors.isUser(authentication, id)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        User user = userRepository.findById(id).orElse(null);
+        if (user == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // Stored as "" rather than null, which would mean the defaults
+        String joined = channels.isEmpty() ? ""
+                : EnumSet.copyOf(channels).stream().map(Channel::name).collect(Collectors.joining(","));
+        user.setNotificationChannels(joined);
+        userRepository.save(user);
+        return ResponseEntity.ok(Map.of("userId", id, "notificationChannels", joined));
+    }
+
+    /**
+     * Go back to the configured default channels (the user themselves or an admin)
+     * DELETE /api/users/{id}/notification-channels
+     */
+    @DeleteMapping("/{id}/notification-channels")
+    public ResponseEntity<?> resetNotificationChannels(@PathVariable Long id, Authentication authentication) {
+        if (!Actors.isUser(authentication, id)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        User user = userRepository.findById(id).orElse(null);
+        if (user == null) {
+            return ResponseEntity.notFound().build();
+        }
+        user.setNotificationChannels(null);
+        userRepository.save(user);
+        return ResponseEntity.ok(Map.of("userId", id, "notificationChannels", "default"));
+    }
+
+    /**
+     * Issue a new iCalendar feed URL for the user; the previous URL stops working.
+     * Only the user themselves or an admin may do this, since the URL opens their schedule
+     * POST /api/users/{id}/calendar-feed
+     */
+    @PostMapping("/{id}/calendar-feed")
+    public ResponseEntity<?> issueCalendarFeed(@PathVariable Long id, Authentication authentication) {
+        if (!Actors.isUser(authentication, id)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return calendarFeeds.issueToken(id)
+                .<ResponseEntity<?>>map(token -> ResponseEntity.ok(
+                        Map.of("userId", id, "feedUrl", "/api/calendar/feeds/" + token + ".ics")))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Revoke the user's iCalendar feed URL (the user themselves or an admin)
+     * DELETE /api/users/{id}/calendar-feed
+     */
+    @DeleteMapping("/{id}/calendar-feed")
+    public ResponseEntity<?> revokeCalendarFeed(@PathVariable Long id, Authentication authentication) {
+        if (!Actors.isUser(authentication, id)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return calendarFeeds.revokeToken(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
 }
@@ -0,0 +1,79 @@
+package com.rihal.AppointmentScheduler.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.rihal.AppointmentScheduler.dto.WaitlistEntryDTO;
+import com.rihal.AppointmentScheduler.dto.WaitlistRequest;
+import com.rihal.AppointmentScheduler.service.WaitlistService;
+
+@RestController
+@RequestMapping("/api/waitlist")
+@CrossOrigin(origins = "http://localhost:5173")
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    public WaitlistController(WaitlistService waitlistService) {
+        this.waitlistService = waitlistService;
+    }
+
+    /**
+     * Join a provider's waitlist for a day (the customer themselves or an admin); a freed
+     * slot is booked or held for the first waiter
+     * POST /api/waitlist {"customerId": "...", "providerId": "...", "date": "2025-08-14", "priority": 0, "autoBook": true}
+     */
+    @PostMapping
+    public ResponseEntity<WaitlistEntryDTO> join(@RequestBody WaitlistRequest request, Authentication authentication) {
+        if (!Actors.isAnyOf(authentication, request.getCustomerId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(WaitlistEntryDTO.from(waitlistService.join(request)));
+    }
+
+    /**
+     * Waiting entries of a provider-day in serving order
+     * GET /api/waitlist/provider/{providerId}?date=2025-08-14
+     */
+    @GetMapping("/provider/{providerId}")
+    public ResponseEntity<List<WaitlistEntryDTO>> forProvider(@PathVariable UUID providerId,
+                                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(waitlistService.waiting(providerId, date).stream().map(WaitlistEntryDTO::from).toList());
+    }
+
+    /**
+     * GET /api/waitlist/customer/{customerId}
+     */
+    @GetMapping("/customer/{customerId}")
+    public ResponseEntity<List<WaitlistEntryDTO>> forCustomer(@PathVariable UUID customerId) {
+        return ResponseEntity.ok(waitlistService.forCustomer(customerId).stream().map(WaitlistEntryDTO::from).toList());
+    }
+
+    /**
+     * Leave the waitlist (the entry's customer or an admin)
+     * DELETE /api/waitlist/{id}
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> leave(@PathVariable UUID id, Authentication authentication) {
+        if (!Actors.isAnyOf(authentication, waitlistService.get(id).getCustomerId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        waitlistService.leave(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -16,6 +16,7 @@ public class AppointmentDTO {
     public LocalTime endTime;
     public AppointmentStatus status;
     public String notes;
+    public UUID seriesId; // set for occurrences of a recurring series
 
     // ✅ Factory method to convert entity → DTO
     public static AppointmentDTO from(Appointment a) {
@@ -28,6 +29,7 @@ public class AppointmentDTO {
         d.endTime = a.getEndTime();
         d.status = a.getStatus();
         d.notes = a.getNotes();
+        d.seriesId = a.getSeriesId();
         return d;
     }
 }
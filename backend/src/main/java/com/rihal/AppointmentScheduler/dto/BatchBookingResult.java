@@ -0,0 +1,29 @@
+package com.rihal.AppointmentScheduler.dto;
+
+import com.rihal.AppointmentScheduler.model.Appointment;
+
+/**
+ * Outcome of one item of a batch booking, in request order.
+ */
+public class BatchBookingResult {
+    public int index;
+    public boolean booked;
+    public AppointmentDTO appointment;
+    public String error;
+
+    public static BatchBookingResult booked(int index, Appointment appointment) {
+        BatchBookingResult r = new BatchBookingResult();
+        r.index = index;
+        r.booked = true;
+        r.appointment = AppointmentDTO.from(appointment);
+        return r;
+    }
+
+    public static BatchBookingResult rejected(int index, String error) {
+        BatchBookingResult r = new BatchBookingResult();
+        r.index = index;
+        r.booked = false;
+        r.error = error;
+        return r;
+    }
+}
@@ -7,6 +7,6 @@ public class CalendarResponse<T> {
     public UUID providerId;
     public LocalDate rangeStart;
     public LocalDate rangeEnd;
-    public long total;        // total appointments in range (after filters)
     public Map<String, T> buckets; // key depends on grouping (date, weekId, month)
+    public long total;        // total appointments in range (after filters); last, as the streamed calendar writes it
 }
@@ -0,0 +1,18 @@
+package com.rihal.AppointmentScheduler.dto;
+
+import java.time.LocalDate;
+
+/** A calendar bucket reduced to its appointment count (counts-only calendar mode) */
+public class CountBucketDTO {
+    public LocalDate start;   // first day of the bucket
+    public LocalDate end;     // last day of the bucket
+    public long total;
+
+    public static CountBucketDTO of(LocalDate start, LocalDate end, long total) {
+        CountBucketDTO b = new CountBucketDTO();
+        b.start = start;
+        b.end = end;
+        b.total = total;
+        return b;
+    }
+}
@@ -5,6 +5,6 @@ import java.util.List;
 
 public class DayBucketDTO {
     public LocalDate date;
-    public long total;
     public List<AppointmentDTO> items;
+    public long total;
 }
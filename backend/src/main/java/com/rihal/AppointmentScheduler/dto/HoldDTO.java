@@ -0,0 +1,30 @@
+package com.rihal.AppointmentScheduler.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import com.rihal.AppointmentScheduler.service.SlotHolds;
+
+public class HoldDTO {
+    public UUID holdId;
+    public UUID customerId;
+    public UUID providerId;
+    public LocalDate date;
+    public LocalTime startTime;
+    public LocalTime endTime;
+    public LocalDateTime expiresAt;
+
+    public static HoldDTO from(SlotHolds.Hold h) {
+        HoldDTO d = new HoldDTO();
+        d.holdId = h.id();
+        d.customerId = h.customerId();
+        d.providerId = h.providerId();
+        d.date = h.date();
+        d.startTime = h.startTime();
+        d.endTime = h.endTime();
+        d.expiresAt = h.expiresAt();
+        return d;
+    }
+}
@@ -5,6 +5,6 @@ import java.util.List;
 
 public class MonthBucketDTO {
     public YearMonth month;   // e.g. 2025-08
-    public long total;
     public List<AppointmentDTO> items;
+    public long total;
 }
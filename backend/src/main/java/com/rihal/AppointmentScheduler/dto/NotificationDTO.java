@@ -0,0 +1,37 @@
+package com.rihal.AppointmentScheduler.dto;
+
+import com.rihal.AppointmentScheduler.model.NotificationLog;
+import com.rihal.AppointmentScheduler.service.NotificationTemplates;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class NotificationDTO {
+    public UUID id;
+    public String eventType;
+    public NotificationLog.Channel channel;
+    public NotificationLog.Status status;
+    public UUID recipientUserId;
+    public UUID appointmentId;
+    public String subject;
+    public String content;
+    public String errorMessage;
+    public String correlationId;
+    public LocalDateTime sentAt;
+
+    public static NotificationDTO from(NotificationLog log, NotificationTemplates.Rendered rendered) {
+        NotificationDTO d = new NotificationDTO();
+        d.id = log.getId();
+        d.eventType = log.getEventType();
+        d.channel = log.getChannel();
+        d.status = log.getStatus();
+        d.recipientUserId = log.getRecipientUserId();
+        d.appointmentId = log.getAppointmentId();
+        d.subject = rendered.subject();
+        d.content = rendered.body();
+        d.errorMessage = log.getErrorMessage();
+        d.correlationId = log.getCorrelationId();
+        d.sentAt = log.getSentAt();
+        return d;
+    }
+}
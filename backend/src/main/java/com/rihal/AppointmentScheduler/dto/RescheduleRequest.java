@@ -3,10 +3,14 @@ package com.rihal.AppointmentScheduler.dto;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
+
 public class RescheduleRequest {
+    @JsonAlias("date")
     private LocalDate newDate;
+    @JsonAlias("time")
     private LocalTime newStartTime;
-    private LocalTime newEndTime; // or compute from duration on backend
+    private LocalTime newEndTime; // optional; must be one slot after newStartTime
 
     public LocalDate getNewDate() { return newDate; }
     public void setNewDate(LocalDate newDate) { this.newDate = newDate; }
@@ -0,0 +1,38 @@
+package com.rihal.AppointmentScheduler.dto;
+
+import com.rihal.AppointmentScheduler.model.AppointmentSeries;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+public class SeriesDTO {
+    public UUID id;
+    public UUID customerId;
+    public UUID providerId;
+    public DayOfWeek dayOfWeek;
+    public LocalDate startDate;
+    public LocalDate untilDate;
+    public int intervalWeeks;
+    public LocalTime startTime;
+    public LocalTime endTime;
+    public AppointmentSeries.Status status;
+    public String notes;
+
+    public static SeriesDTO from(AppointmentSeries s) {
+        SeriesDTO d = new SeriesDTO();
+        d.id = s.getId();
+        d.customerId = s.getCustomerId();
+        d.providerId = s.getProviderId();
+        d.dayOfWeek = s.getDayOfWeek();
+        d.startDate = s.getStartDate();
+        d.untilDate = s.getUntilDate();
+        d.intervalWeeks = s.getIntervalWeeks();
+        d.startTime = s.getStartTime();
+        d.endTime = s.getEndTime();
+        d.status = s.getStatus();
+        d.notes = s.getNotes();
+        return d;
+    }
+}
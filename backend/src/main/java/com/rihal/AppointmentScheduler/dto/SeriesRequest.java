@@ -0,0 +1,40 @@
+package com.rihal.AppointmentScheduler.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+public class SeriesRequest {
+    private UUID customerId;
+    private UUID providerId;
+    private LocalDate startDate;   // first occurrence; the series repeats on this weekday
+    private LocalTime startTime;
+    private Integer intervalWeeks; // 1 = weekly (default), 2 = biweekly, ...
+    private LocalDate untilDate;   // either untilDate or count
+    private Integer count;
+    private String notes;
+
+    public UUID getCustomerId() { return customerId; }
+    public void setCustomerId(UUID customerId) { this.customerId = customerId; }
+
+    public UUID getProviderId() { return providerId; }
+    public void setProviderId(UUID providerId) { this.providerId = providerId; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+
+    public Integer getIntervalWeeks() { return intervalWeeks; }
+    public void setIntervalWeeks(Integer intervalWeeks) { this.intervalWeeks = intervalWeeks; }
+
+    public LocalDate getUntilDate() { return untilDate; }
+    public void setUntilDate(LocalDate untilDate) { this.untilDate = untilDate; }
+
+    public Integer getCount() { return count; }
+    public void setCount(Integer count) { this.count = count; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+}
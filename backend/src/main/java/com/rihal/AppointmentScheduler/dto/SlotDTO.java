@@ -0,0 +1,21 @@
+package com.rihal.AppointmentScheduler.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+public class SlotDTO {
+    public UUID providerId;
+    public LocalDate date;
+    public LocalTime startTime;
+    public LocalTime endTime;
+
+    public static SlotDTO of(UUID providerId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        SlotDTO s = new SlotDTO();
+        s.providerId = providerId;
+        s.date = date;
+        s.startTime = startTime;
+        s.endTime = endTime;
+        return s;
+    }
+}
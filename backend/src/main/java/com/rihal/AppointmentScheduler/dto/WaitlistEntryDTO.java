@@ -0,0 +1,38 @@
+package com.rihal.AppointmentScheduler.dto;
+
+import com.rihal.AppointmentScheduler.model.WaitlistEntry;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+public class WaitlistEntryDTO {
+    public UUID id;
+    public UUID customerId;
+    public UUID providerId;
+    public LocalDate date;
+    public LocalTime earliestStart;
+    public LocalTime latestStart;
+    public int priority;
+    public boolean autoBook;
+    public WaitlistEntry.Status status;
+    public UUID appointmentId;
+    public LocalDateTime createdAt;
+
+    public static WaitlistEntryDTO from(WaitlistEntry e) {
+        WaitlistEntryDTO d = new WaitlistEntryDTO();
+        d.id = e.getId();
+        d.customerId = e.getCustomerId();
+        d.providerId = e.getProviderId();
+        d.date = e.getDate();
+        d.earliestStart = e.getEarliestStart();
+        d.latestStart = e.getLatestStart();
+        d.priority = e.getPriority();
+        d.autoBook = e.isAutoBook();
+        d.status = e.getStatus();
+        d.appointmentId = e.getAppointmentId();
+        d.createdAt = e.getCreatedAt();
+        return d;
+    }
+}
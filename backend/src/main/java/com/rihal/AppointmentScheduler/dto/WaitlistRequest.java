@@ -0,0 +1,36 @@
+package com.rihal.AppointmentScheduler.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+public class WaitlistRequest {
+    private UUID customerId;
+    private UUID providerId;
+    private LocalDate date;
+    private LocalTime earliestStart;
+    private LocalTime latestStart;
+    private int priority;
+    private boolean autoBook;
+
+    public UUID getCustomerId() { return customerId; }
+    public void setCustomerId(UUID customerId) { this.customerId = customerId; }
+
+    public UUID getProviderId() { return providerId; }
+    public void setProviderId(UUID providerId) { this.providerId = providerId; }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public LocalTime getEarliestStart() { return earliestStart; }
+    public void setEarliestStart(LocalTime earliestStart) { this.earliestStart = earliestStart; }
+
+    public LocalTime getLatestStart() { return latestStart; }
+    public void setLatestStart(LocalTime latestStart) { this.latestStart = latestStart; }
+
+    public int getPriority() { return priority; }
+    public void setPriority(int priority) { this.priority = priority; }
+
+    public boolean isAutoBook() { return autoBook; }
+    public void setAutoBook(boolean autoBook) { this.autoBook = autoBook; }
+}
@@ -8,6 +8,6 @@ public class WeekBucketDTO {
     public int weekYear;      // ISO week-based-year
     public LocalDate start;   // Monday
     public LocalDate end;     // Sunday
-    public long total;
     public List<AppointmentDTO> items;
+    public long total;
 }
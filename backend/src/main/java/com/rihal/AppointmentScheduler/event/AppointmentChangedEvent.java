@@ -0,0 +1,48 @@
+package com.rihal.AppointmentScheduler.event;
+
+import com.rihal.AppointmentScheduler.model.Appointment;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Published after an appointment is booked, cancelled or rescheduled so in-memory views
+ * (slot index, caches, reminders) can update without re-reading the database. The
+ * {@code previous*} fields hold the old slot of a rescheduled appointment and are null
+ * otherwise; {@code seriesId} is set on exception rows of a recurring series.
+ */
+public record AppointmentChangedEvent(Kind kind,
+                                      UUID appointmentId,
+                                      UUID providerId,
+                                      UUID customerId,
+                                      UUID seriesId,
+                                      LocalDate date,
+                                      LocalTime startTime,
+                                      LocalTime endTime,
+                                      LocalDate previousDate,
+                                      LocalTime previousStartTime,
+                                      LocalTime previousEndTime) {
+
+    public enum Kind { BOOKED, CANCELLED, RESCHEDULED }
+
+    public static AppointmentChangedEvent booked(Appointment a) {
+        return of(Kind.BOOKED, a);
+    }
+
+    public static AppointmentChangedEvent cancelled(Appointment a) {
+        return of(Kind.CANCELLED, a);
+    }
+
+    /** {@code a} must already carry the new slot. */
+    public static AppointmentChangedEvent rescheduled(Appointment a, LocalDate previousDate,
+                                                      LocalTime previousStartTime, LocalTime previousEndTime) {
+        return new AppointmentChangedEvent(Kind.RESCHEDULED, a.getId(), a.getProviderId(), a.getCustomerId(),
+                a.getSeriesId(), a.getDate(), a.getStartTime(), a.getEndTime(), previousDate, previousStartTime, previousEndTime);
+    }
+
+    private static AppointmentChangedEvent of(Kind kind, Appointment a) {
+        return new AppointmentChangedEvent(kind, a.getId(), a.getProviderId(), a.getCustomerId(),
+                a.getSeriesId(), a.getDate(), a.getStartTime(), a.getEndTime(), null, null, null);
+    }
+}
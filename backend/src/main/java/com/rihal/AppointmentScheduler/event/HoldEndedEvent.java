@@ -0,0 +1,22 @@
+package com.rihal.AppointmentScheduler.event;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Published when a slot hold ends: confirmed into {@code appointmentId}, or given up
+ * (expired or released) with {@code appointmentId} null, leaving the slot free again.
+ */
+public record HoldEndedEvent(UUID holdId,
+                             UUID customerId,
+                             UUID providerId,
+                             LocalDate date,
+                             LocalTime startTime,
+                             LocalTime endTime,
+                             UUID appointmentId) {
+
+    public boolean confirmed() {
+        return appointmentId != null;
+    }
+}
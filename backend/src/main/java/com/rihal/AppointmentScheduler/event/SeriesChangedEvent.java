@@ -0,0 +1,9 @@
+package com.rihal.AppointmentScheduler.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a recurring series is created or cut short. Its occurrences are not
+ * stored, so listeners re-read the series instead of receiving per-occurrence events.
+ */
+public record SeriesChangedEvent(UUID seriesId, UUID providerId, UUID customerId) {}
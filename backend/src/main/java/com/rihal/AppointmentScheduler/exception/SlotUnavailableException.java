@@ -0,0 +1,11 @@
+package com.rihal.AppointmentScheduler.exception;
+
+/**
+ * Thrown when a requested slot is outside the provider's hours or already taken.
+ */
+public class SlotUnavailableException extends RuntimeException {
+
+    public SlotUnavailableException(String message) {
+        super(message);
+    }
+}
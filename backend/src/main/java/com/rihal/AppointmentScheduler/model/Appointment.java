@@ -1,6 +1,7 @@
 package com.rihal.AppointmentScheduler.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.UUID;
@@ -8,7 +9,11 @@ import java.util.UUID;
 @Entity
 @Table(
         name = "appointments",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"provider_id", "date", "start_time"})
+        uniqueConstraints = @UniqueConstraint(columnNames = {"provider_id", "date", "booked_slot"}),
+        indexes = {
+                @Index(name = "idx_appointments_series", columnList = "series_id, original_date"),
+                @Index(name = "idx_appointments_status_date_start", columnList = "status, date, start_time")
+        }
 )
 public class Appointment {
 
@@ -38,6 +43,31 @@ public class Appointment {
     @Column(length = 500)
     private String notes;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    // Equals startTime while BOOKED and null otherwise, so the unique constraint only
+    // guards live bookings and a cancelled slot can be booked again. Databases created
+    // before this column need docs/migrations/001_appointments_booked_slot.sql once.
+    @Column(name = "booked_slot")
+    private LocalTime bookedSlot;
+
+    // Set on rows that override one occurrence of an AppointmentSeries (cancelled or moved);
+    // regular occurrences are not stored and are expanded from the series on read.
+    @Column(name = "series_id")
+    private UUID seriesId;
+
+    @Column(name = "original_date")
+    private LocalDate originalDate;
+
+    @PrePersist
+    @PreUpdate
+    void syncBookedSlot() {
+        bookedSlot = status == AppointmentStatus.BOOKED ? startTime : null;
+    }
+
     // --- Getters & Setters ---
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
@@ -62,4 +92,12 @@ public class Appointment {
 
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
+
+    public long getVersion() { return version; }
+
+    public UUID getSeriesId() { return seriesId; }
+    public void setSeriesId(UUID seriesId) { this.seriesId = seriesId; }
+
+    public LocalDate getOriginalDate() { return originalDate; }
+    public void setOriginalDate(LocalDate originalDate) { this.originalDate = originalDate; }
 }
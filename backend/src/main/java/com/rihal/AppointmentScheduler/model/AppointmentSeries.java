@@ -0,0 +1,136 @@
+package com.rihal.AppointmentScheduler.model;
+
+import jakarta.persistence.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A recurring booking, like an RRULE {@code FREQ=WEEKLY;INTERVAL=n;UNTIL=...}: one slot
+ * on the weekday of {@code startDate}, every {@code intervalWeeks} weeks up to and
+ * including {@code untilDate}. Occurrences are not stored; only exceptions are, as
+ * {@link Appointment} rows pointing back here.
+ */
+@Entity
+@Table(
+        name = "appointment_series",
+        indexes = {
+                @Index(name = "idx_series_provider_dates", columnList = "provider_id, status, start_date, until_date"),
+                @Index(name = "idx_series_customer", columnList = "customer_id")
+        }
+)
+public class AppointmentSeries {
+
+    public enum Status { ACTIVE, CANCELLED }
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "customer_id", nullable = false)
+    private UUID customerId;
+
+    @Column(name = "provider_id", nullable = false)
+    private UUID providerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week", nullable = false)
+    private DayOfWeek dayOfWeek;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "until_date", nullable = false)
+    private LocalDate untilDate;
+
+    @Column(name = "interval_weeks", nullable = false)
+    private int intervalWeeks = 1;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalTime endTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.ACTIVE;
+
+    @Column(length = 500)
+    private String notes;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Version
+    private long version;
+
+    /** Occurrence dates within {@code [from, to]}, in order. */
+    public List<LocalDate> occurrences(LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        if (status != Status.ACTIVE) {
+            return dates;
+        }
+        LocalDate last = to.isBefore(untilDate) ? to : untilDate;
+        long step = 7L * intervalWeeks;
+        LocalDate date = startDate;
+        if (from.isAfter(startDate)) {
+            long skip = (ChronoUnit.DAYS.between(startDate, from) + step - 1) / step;
+            date = startDate.plusDays(skip * step);
+        }
+        for (; !date.isAfter(last); date = date.plusDays(step)) {
+            dates.add(date);
+        }
+        return dates;
+    }
+
+    public boolean occursOn(LocalDate date) {
+        return status == Status.ACTIVE
+                && !date.isBefore(startDate) && !date.isAfter(untilDate)
+                && ChronoUnit.DAYS.between(startDate, date) % (7L * intervalWeeks) == 0;
+    }
+
+    // --- Getters & Setters ---
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public UUID getCustomerId() { return customerId; }
+    public void setCustomerId(UUID customerId) { this.customerId = customerId; }
+
+    public UUID getProviderId() { return providerId; }
+    public void setProviderId(UUID providerId) { this.providerId = providerId; }
+
+    public DayOfWeek getDayOfWeek() { return dayOfWeek; }
+    public void setDayOfWeek(DayOfWeek dayOfWeek) { this.dayOfWeek = dayOfWeek; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getUntilDate() { return untilDate; }
+    public void setUntilDate(LocalDate untilDate) { this.untilDate = untilDate; }
+
+    public int getIntervalWeeks() { return intervalWeeks; }
+    public void setIntervalWeeks(int intervalWeeks) { this.intervalWeeks = intervalWeeks; }
+
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+
+    public LocalTime getEndTime() { return endTime; }
+    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public long getVersion() { return version; }
+}
@@ -0,0 +1,28 @@
+package com.rihal.AppointmentScheduler.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Counter bumped whenever the appointments of one provider or customer change; read to
+ * build ETags without querying the appointments themselves.
+ */
+@Entity
+@Table(name = "change_versions")
+public class ChangeVersion {
+
+    @Id
+    @Column(name = "scope", length = 64)
+    private String scope;   // "provider:<uuid>" or "customer:<uuid>"
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    public String getScope() { return scope; }
+    public void setScope(String scope) { this.scope = scope; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
@@ -9,10 +9,16 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "notification_logs")
+@Table(name = "notification_logs", indexes = {
+		@Index(name = "idx_notification_logs_appointment", columnList = "appointment_id, event_type"),
+		@Index(name = "idx_notification_logs_correlation", columnList = "correlation_id, event_type"),
+		@Index(name = "idx_notification_logs_recipient", columnList = "recipient_user_id, created_at"),
+		@Index(name = "idx_notification_logs_created_at", columnList = "created_at")
+})
 public class NotificationLog {
 
 	public enum Channel { EMAIL, SMS, PUSH, IN_APP }
@@ -36,6 +42,14 @@ public class NotificationLog {
 	@Column(name = "event_type", nullable = false)
 	private String eventType;
 
+	/** Template the subject and content are rendered from; null on rows that store the text. */
+	@Column(name = "template_id", length = 64)
+	private String templateId;
+
+	/** Template parameters, encoded by {@code NotificationTemplates.encode}. */
+	@Column(name = "template_params", length = 1000)
+	private String templateParams;
+
 	private String subject;
 
 	@Column(columnDefinition = "TEXT")
@@ -72,6 +86,12 @@ public class NotificationLog {
 	public String getEventType() { return eventType; }
 	public void setEventType(String eventType) { this.eventType = eventType; }
 
+	public String getTemplateId() { return templateId; }
+	public void setTemplateId(String templateId) { this.templateId = templateId; }
+
+	public String getTemplateParams() { return templateParams; }
+	public void setTemplateParams(String templateParams) { this.templateParams = templateParams; }
+
 	public String getSubject() { return subject; }
 	public void setSubject(String subject) { this.subject = subject; }
 
@@ -0,0 +1,37 @@
+package com.rihal.AppointmentScheduler.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Marks a reminder as sent. The key is the primary key, so when two instances fire the
+ * same reminder only the first insert succeeds.
+ */
+@Entity
+@Table(name = "reminder_claims", indexes = @Index(name = "idx_reminder_claims_claimed_at", columnList = "claimed_at"))
+public class ReminderClaim {
+
+    @Id
+    @Column(name = "reminder_key", length = 100)
+    private String key;
+
+    @Column(name = "owner", length = 100, nullable = false)
+    private String owner;
+
+    @Column(name = "claimed_at", nullable = false)
+    private LocalDateTime claimedAt;
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public LocalDateTime getClaimedAt() { return claimedAt; }
+    public void setClaimedAt(LocalDateTime claimedAt) { this.claimedAt = claimedAt; }
+}
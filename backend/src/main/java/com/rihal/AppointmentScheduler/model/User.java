@@ -1,5 +1,6 @@
 package com.rihal.AppointmentScheduler.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
@@ -29,6 +30,16 @@ public class User {
 
     private String phone;
 
+    // Comma-separated NotificationLog.Channel names; null means the configured defaults,
+    // "" that the user turned every channel off
+    @Column(name = "notification_channels", length = 64)
+    private String notificationChannels;
+
+    // Secret in the URL of the user's iCalendar feed; null while no feed is issued
+    @JsonIgnore
+    @Column(name = "calendar_feed_token", unique = true, length = 64)
+    private String calendarFeedToken;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -96,6 +107,20 @@ public class User {
         this.phone = phone;
     }
 
+    public String getNotificationChannels() {
+        return notificationChannels;
+    }
+    public void setNotificationChannels(String notificationChannels) {
+        this.notificationChannels = notificationChannels;
+    }
+
+    public String getCalendarFeedToken() {
+        return calendarFeedToken;
+    }
+    public void setCalendarFeedToken(String calendarFeedToken) {
+        this.calendarFeedToken = calendarFeedToken;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,103 @@
+package com.rihal.AppointmentScheduler.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+@Entity
+@Table(
+        name = "waitlist_entries",
+        indexes = @Index(name = "idx_waitlist_provider_date_status", columnList = "provider_id, date, status")
+)
+public class WaitlistEntry {
+
+    public enum Status { WAITING, OFFERED, BOOKED, EXPIRED, REMOVED }
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "customer_id", nullable = false)
+    private UUID customerId;
+
+    @Column(name = "provider_id", nullable = false)
+    private UUID providerId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    // Optional window for acceptable slot starts; null means any time that day
+    @Column(name = "earliest_start")
+    private LocalTime earliestStart;
+
+    @Column(name = "latest_start")
+    private LocalTime latestStart;
+
+    // Higher goes first; equal priorities are served first come, first served
+    @Column(nullable = false)
+    private int priority;
+
+    // Book the freed slot directly instead of offering it as a hold
+    @Column(name = "auto_book", nullable = false)
+    private boolean autoBook;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.WAITING;
+
+    @Column(name = "appointment_id")
+    private UUID appointmentId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    /** True if a slot starting at {@code start} falls inside this entry's window. */
+    public boolean accepts(LocalTime start) {
+        return (earliestStart == null || !start.isBefore(earliestStart))
+                && (latestStart == null || !start.isAfter(latestStart));
+    }
+
+    // --- Getters & Setters ---
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public UUID getCustomerId() { return customerId; }
+    public void setCustomerId(UUID customerId) { this.customerId = customerId; }
+
+    public UUID getProviderId() { return providerId; }
+    public void setProviderId(UUID providerId) { this.providerId = providerId; }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public LocalTime getEarliestStart() { return earliestStart; }
+    public void setEarliestStart(LocalTime earliestStart) { this.earliestStart = earliestStart; }
+
+    public LocalTime getLatestStart() { return latestStart; }
+    public void setLatestStart(LocalTime latestStart) { this.latestStart = latestStart; }
+
+    public int getPriority() { return priority; }
+    public void setPriority(int priority) { this.priority = priority; }
+
+    public boolean isAutoBook() { return autoBook; }
+    public void setAutoBook(boolean autoBook) { this.autoBook = autoBook; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public UUID getAppointmentId() { return appointmentId; }
+    public void setAppointmentId(UUID appointmentId) { this.appointmentId = appointmentId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public long getVersion() { return version; }
+}
@@ -2,19 +2,39 @@ package com.rihal.AppointmentScheduler.repository;
 
 import com.rihal.AppointmentScheduler.model.Appointment;
 import com.rihal.AppointmentScheduler.model.AppointmentStatus;
-import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, UUID> {
 
+    /** Rows fetched per round trip by {@link #streamCalendar}. */
+    String STREAM_FETCH_SIZE = "500";
+
+    /** Row of {@link #countPerDay}. */
+    interface DayCount {
+        LocalDate getDate();
+        Long getTotal();
+    }
+
+    /** Row of {@link #countPerMonth}. */
+    interface MonthCount {
+        Integer getYear();
+        Integer getMonth();
+        Long getTotal();
+    }
+
     // ✅ Paginated search for customer with filters
     @Query("""
         SELECT a FROM Appointment a
@@ -54,6 +74,94 @@ public interface AppointmentRepository extends JpaRepository<Appointment, UUID>
     // ✅ Find provider appointments within date range
     List<Appointment> findByProviderIdAndDateBetween(UUID providerId, LocalDate start, LocalDate end);
 
+    // ✅ Provider appointments within a range in calendar order, read incrementally
+    // (must be consumed inside a transaction and closed)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("""
+        SELECT a FROM Appointment a
+        WHERE a.providerId = :providerId
+          AND a.date BETWEEN :start AND :end
+          AND a.status IN :statuses
+        ORDER BY a.date, a.startTime
+        """)
+    Stream<Appointment> streamCalendar(@Param("providerId") UUID providerId,
+                                       @Param("start") LocalDate start,
+                                       @Param("end") LocalDate end,
+                                       @Param("statuses") Collection<AppointmentStatus> statuses);
+
+    // ✅ Same for a customer's appointments (calendar feeds)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("""
+        SELECT a FROM Appointment a
+        WHERE a.customerId = :customerId
+          AND a.date BETWEEN :start AND :end
+          AND a.status IN :statuses
+        ORDER BY a.date, a.startTime
+        """)
+    Stream<Appointment> streamCustomerCalendar(@Param("customerId") UUID customerId,
+                                               @Param("start") LocalDate start,
+                                               @Param("end") LocalDate end,
+                                               @Param("statuses") Collection<AppointmentStatus> statuses);
+
+    // ✅ Provider appointments per day within a range, counted in the database
+    @Query("""
+        SELECT a.date AS date, COUNT(a) AS total
+        FROM Appointment a
+        WHERE a.providerId = :providerId
+          AND a.date BETWEEN :start AND :end
+          AND a.status IN :statuses
+        GROUP BY a.date
+        ORDER BY a.date
+        """)
+    List<DayCount> countPerDay(@Param("providerId") UUID providerId,
+                               @Param("start") LocalDate start,
+                               @Param("end") LocalDate end,
+                               @Param("statuses") Collection<AppointmentStatus> statuses);
+
+    // ✅ Provider appointments per month within a range, counted in the database
+    @Query("""
+        SELECT EXTRACT(YEAR FROM a.date) AS year, EXTRACT(MONTH FROM a.date) AS month, COUNT(a) AS total
+        FROM Appointment a
+        WHERE a.providerId = :providerId
+          AND a.date BETWEEN :start AND :end
+          AND a.status IN :statuses
+        GROUP BY EXTRACT(YEAR FROM a.date), EXTRACT(MONTH FROM a.date)
+        ORDER BY EXTRACT(YEAR FROM a.date), EXTRACT(MONTH FROM a.date)
+        """)
+    List<MonthCount> countPerMonth(@Param("providerId") UUID providerId,
+                                   @Param("start") LocalDate start,
+                                   @Param("end") LocalDate end,
+                                   @Param("statuses") Collection<AppointmentStatus> statuses);
+
+    // ✅ Find provider appointments by status within date range, in calendar order
+    List<Appointment> findByProviderIdAndStatusAndDateBetweenOrderByDateAscStartTimeAsc(
+            UUID providerId, AppointmentStatus status, LocalDate start, LocalDate end);
+
+    // ✅ Same for many providers at once
+    List<Appointment> findByProviderIdInAndStatusAndDateBetweenOrderByDateAscStartTimeAsc(
+            Collection<UUID> providerIds, AppointmentStatus status, LocalDate start, LocalDate end);
+
+    // ✅ Rows overriding occurrences of the given series within a window
+    List<Appointment> findBySeriesIdInAndOriginalDateBetween(Collection<UUID> seriesIds, LocalDate start, LocalDate end);
+
+    // ✅ Find provider appointments on a single day by status
+    List<Appointment> findByProviderIdAndDateAndStatus(UUID providerId, LocalDate date, AppointmentStatus status);
+
+    // ✅ Booked appointments starting in [from, to), served by idx_appointments_status_date_start
+    @Query("""
+        SELECT a FROM Appointment a
+        WHERE a.status = com.rihal.AppointmentScheduler.model.AppointmentStatus.BOOKED
+          AND a.date BETWEEN :fromDate AND :toDate
+          AND (a.date > :fromDate OR a.startTime >= :fromTime)
+          AND (a.date < :toDate OR a.startTime < :toTime)
+        ORDER BY a.date, a.startTime, a.id
+        """)
+    Slice<Appointment> findBookedStartingBetween(@Param("fromDate") LocalDate fromDate,
+                                                 @Param("fromTime") LocalTime fromTime,
+                                                 @Param("toDate") LocalDate toDate,
+                                                 @Param("toTime") LocalTime toTime,
+                                                 Pageable pageable);
+
     // ✅ Check overlap (avoids double-booking)
     @Query("""
         SELECT CASE WHEN COUNT(a) > 0 THEN TRUE ELSE FALSE END
@@ -70,9 +178,22 @@ public interface AppointmentRepository extends JpaRepository<Appointment, UUID>
                           @Param("newEnd") LocalTime newEnd,
                           @Param("appointmentId") UUID appointmentId);
 
-    // ✅ Pessimistic lock for provider’s appointments (to prevent race conditions)
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT a FROM Appointment a WHERE a.providerId = :providerId AND a.date = :date")
-    List<Appointment> findForUpdate(@Param("providerId") UUID providerId,
-                                    @Param("date") LocalDate date);
+    // ✅ Move a booked appointment in one UPDATE; returns 0 if the version no longer matches
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Appointment a
+           SET a.date = :date,
+               a.startTime = :startTime,
+               a.endTime = :endTime,
+               a.bookedSlot = :startTime,
+               a.version = a.version + 1
+         WHERE a.id = :id
+           AND a.version = :version
+           AND a.status = com.rihal.AppointmentScheduler.model.AppointmentStatus.BOOKED
+        """)
+    int reschedule(@Param("id") UUID id,
+                   @Param("version") long version,
+                   @Param("date") LocalDate date,
+                   @Param("startTime") LocalTime startTime,
+                   @Param("endTime") LocalTime endTime);
 }
@@ -0,0 +1,78 @@
+package com.rihal.AppointmentScheduler.repository;
+
+import com.rihal.AppointmentScheduler.model.AppointmentSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AppointmentSeriesRepository extends JpaRepository<AppointmentSeries, UUID> {
+
+    // ✅ Active series of a provider that have occurrences inside [start, end]
+    @Query("""
+        SELECT s FROM AppointmentSeries s
+        WHERE s.providerId = :providerId
+          AND s.status = com.rihal.AppointmentScheduler.model.AppointmentSeries.Status.ACTIVE
+          AND s.startDate <= :end
+          AND s.untilDate >= :start
+        """)
+    List<AppointmentSeries> findActiveInRange(@Param("providerId") UUID providerId,
+                                              @Param("start") LocalDate start,
+                                              @Param("end") LocalDate end);
+
+    // ✅ Same for many providers at once
+    @Query("""
+        SELECT s FROM AppointmentSeries s
+        WHERE s.providerId IN :providerIds
+          AND s.status = com.rihal.AppointmentScheduler.model.AppointmentSeries.Status.ACTIVE
+          AND s.startDate <= :end
+          AND s.untilDate >= :start
+        """)
+    List<AppointmentSeries> findActiveInRange(@Param("providerIds") Collection<UUID> providerIds,
+                                              @Param("start") LocalDate start,
+                                              @Param("end") LocalDate end);
+
+    // ✅ Active series of a customer that have occurrences inside [start, end]
+    @Query("""
+        SELECT s FROM AppointmentSeries s
+        WHERE s.customerId = :customerId
+          AND s.status = com.rihal.AppointmentScheduler.model.AppointmentSeries.Status.ACTIVE
+          AND s.startDate <= :end
+          AND s.untilDate >= :start
+        """)
+    List<AppointmentSeries> findActiveInRangeForCustomer(@Param("customerId") UUID customerId,
+                                                         @Param("start") LocalDate start,
+                                                         @Param("end") LocalDate end);
+
+    // ✅ Active series of all providers with occurrences inside [start, end]
+    @Query("""
+        SELECT s FROM AppointmentSeries s
+        WHERE s.status = com.rihal.AppointmentScheduler.model.AppointmentSeries.Status.ACTIVE
+          AND s.startDate <= :end
+          AND s.untilDate >= :start
+        """)
+    List<AppointmentSeries> findActiveInRange(@Param("start") LocalDate start,
+                                              @Param("end") LocalDate end);
+
+    // ✅ Active series of a provider that may occur on one date (weekday and range match)
+    @Query("""
+        SELECT s FROM AppointmentSeries s
+        WHERE s.providerId = :providerId
+          AND s.status = com.rihal.AppointmentScheduler.model.AppointmentSeries.Status.ACTIVE
+          AND s.dayOfWeek = :dayOfWeek
+          AND s.startDate <= :date
+          AND s.untilDate >= :date
+        """)
+    List<AppointmentSeries> findActiveOn(@Param("providerId") UUID providerId,
+                                         @Param("date") LocalDate date,
+                                         @Param("dayOfWeek") DayOfWeek dayOfWeek);
+
+    List<AppointmentSeries> findByCustomerIdOrderByStartDateAsc(UUID customerId);
+}
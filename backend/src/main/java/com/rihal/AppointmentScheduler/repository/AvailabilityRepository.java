@@ -1,6 +1,7 @@
 package com.rihal.AppointmentScheduler.repository;
 
 import java.time.DayOfWeek;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -22,5 +23,15 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Long
     @Query("SELECT a FROM Availability a WHERE a.provider.id = :providerId AND a.isActive = true ORDER BY a.dayOfWeek, a.startTime")
     List<Availability> findActiveAvailabilitiesByProvider(@Param("providerId") Long providerId);
 
+    @Query("SELECT DISTINCT a FROM Availability a LEFT JOIN FETCH a.breakTimes WHERE a.provider.id = :providerId AND a.dayOfWeek = :dayOfWeek AND a.isActive = true")
+    List<Availability> findActiveWithBreaks(@Param("providerId") Long providerId,
+                                            @Param("dayOfWeek") DayOfWeek dayOfWeek);
+
+    @Query("SELECT DISTINCT a FROM Availability a LEFT JOIN FETCH a.breakTimes WHERE a.provider.id = :providerId AND a.isActive = true")
+    List<Availability> findActiveWithBreaks(@Param("providerId") Long providerId);
+
+    @Query("SELECT DISTINCT a FROM Availability a LEFT JOIN FETCH a.breakTimes WHERE a.provider.id IN :providerIds AND a.isActive = true")
+    List<Availability> findActiveWithBreaksByProviderIds(@Param("providerIds") Collection<Long> providerIds);
+
     boolean existsByProviderIdAndDayOfWeek(Long providerId, DayOfWeek dayOfWeek);
 }
@@ -0,0 +1,28 @@
+package com.rihal.AppointmentScheduler.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.rihal.AppointmentScheduler.model.ChangeVersion;
+
+@Repository
+public interface ChangeVersionRepository extends JpaRepository<ChangeVersion, String> {
+
+    // ✅ Increments an existing counter; 0 if the scope has none yet
+    @Modifying
+    @Query("UPDATE ChangeVersion v SET v.version = v.version + 1 WHERE v.scope = :scope")
+    int increment(@Param("scope") String scope);
+
+    // ✅ Plain INSERT (save() would merge); a duplicate key means another writer created it first
+    @Modifying
+    @Query(value = "INSERT INTO change_versions (scope, version) VALUES (:scope, 1)", nativeQuery = true)
+    void insert(@Param("scope") String scope);
+
+    @Query("SELECT v.version FROM ChangeVersion v WHERE v.scope = :scope")
+    Optional<Long> findVersion(@Param("scope") String scope);
+}
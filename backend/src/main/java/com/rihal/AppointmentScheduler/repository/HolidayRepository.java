@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,6 +21,11 @@ public interface HolidayRepository extends JpaRepository<Holiday, Long> {
                                                @Param("startDate") LocalDate startDate,
                                                @Param("endDate") LocalDate endDate);
 
+    @Query("SELECT h FROM Holiday h WHERE h.provider.id IN :providerIds AND h.date BETWEEN :startDate AND :endDate ORDER BY h.date")
+    List<Holiday> findByProviderIdsAndDateRange(@Param("providerIds") Collection<Long> providerIds,
+                                                @Param("startDate") LocalDate startDate,
+                                                @Param("endDate") LocalDate endDate);
+
     @Query("SELECT h FROM Holiday h WHERE h.provider.id = :providerId AND h.date >= :currentDate ORDER BY h.date")
     List<Holiday> findUpcomingHolidaysByProvider(@Param("providerId") Long providerId,
                                                  @Param("currentDate") LocalDate currentDate);
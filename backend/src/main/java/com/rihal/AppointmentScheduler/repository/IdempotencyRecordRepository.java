@@ -0,0 +1,33 @@
+package com.rihal.AppointmentScheduler.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.rihal.AppointmentScheduler.model.IdempotencyRecord;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // ✅ Plain INSERT (save() would merge); a duplicate key means another node stored it first
+    @Modifying
+    @Query(value = """
+        INSERT INTO idempotency_records
+            (idempotency_key, request_scope, status_code, response_body, created_at, expires_at)
+        VALUES (:key, :scope, :statusCode, :responseBody, :createdAt, :expiresAt)
+        """, nativeQuery = true)
+    void insert(@Param("key") String key,
+                @Param("scope") String scope,
+                @Param("statusCode") int statusCode,
+                @Param("responseBody") String responseBody,
+                @Param("createdAt") LocalDateTime createdAt,
+                @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,8 +1,10 @@
 package com.rihal.AppointmentScheduler.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,6 +14,10 @@ import com.rihal.AppointmentScheduler.model.NotificationLog;
 public interface NotificationLogRepository extends JpaRepository<NotificationLog, UUID> {
 	List<NotificationLog> findByAppointmentId(UUID appointmentId);
 	List<NotificationLog> findByRecipientUserId(UUID recipientUserId);
+	List<NotificationLog> findByAppointmentIdOrderByCreatedAtDesc(UUID appointmentId);
+	List<NotificationLog> findByRecipientUserIdOrderByCreatedAtDesc(UUID recipientUserId);
+	// ✅ Oldest rows first, a chunk at a time, for the archiver
+	List<NotificationLog> findByCreatedAtBeforeOrderByCreatedAtAsc(LocalDateTime before, Pageable pageable);
 }
 
 
@@ -0,0 +1,25 @@
+package com.rihal.AppointmentScheduler.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.rihal.AppointmentScheduler.model.ReminderClaim;
+
+@Repository
+public interface ReminderClaimRepository extends JpaRepository<ReminderClaim, String> {
+
+    // ✅ Plain INSERT (save() would merge); a duplicate key means another instance sent it
+    @Modifying
+    @Query(value = "INSERT INTO reminder_claims (reminder_key, owner, claimed_at) VALUES (:key, :owner, :claimedAt)",
+           nativeQuery = true)
+    void insert(@Param("key") String key, @Param("owner") String owner, @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Modifying
+    @Query("DELETE FROM ReminderClaim c WHERE c.claimedAt < :before")
+    int deleteClaimedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,43 @@
+package com.rihal.AppointmentScheduler.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.rihal.AppointmentScheduler.model.SchedulerLease;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    // ✅ Compare-and-set: succeeds only if the lease is ours already or has expired
+    @Modifying
+    @Query("""
+        UPDATE SchedulerLease l SET l.owner = :owner, l.expiresAt = :expiresAt
+        WHERE l.name = :name AND (l.owner = :owner OR l.owner IS NULL OR l.expiresAt < :now)
+        """)
+    int tryAcquire(@Param("name") String name,
+                   @Param("owner") String owner,
+                   @Param("now") LocalDateTime now,
+                   @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.owner = NULL WHERE l.name = :name AND l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner);
+
+    @Modifying
+    @Query(value = "INSERT INTO scheduler_leases (lease_name, owner, expires_at) VALUES (:name, NULL, :expiresAt)",
+           nativeQuery = true)
+    void insertFree(@Param("name") String name, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM SchedulerLease l WHERE l.name LIKE :prefix% AND l.expiresAt < :before")
+    int deleteExpired(@Param("prefix") String prefix, @Param("before") LocalDateTime before);
+
+    @Query("SELECT l FROM SchedulerLease l WHERE l.name LIKE :prefix% ORDER BY l.name")
+    List<SchedulerLease> findByPrefix(@Param("prefix") String prefix);
+}
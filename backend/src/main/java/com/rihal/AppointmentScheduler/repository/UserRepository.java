@@ -11,4 +11,5 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     List<User> findByRole(User.Role role);
     boolean existsByEmail(String email);
+    Optional<User> findByCalendarFeedToken(String calendarFeedToken);
 }
\ No newline at end of file
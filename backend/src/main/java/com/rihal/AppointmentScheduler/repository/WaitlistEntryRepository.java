@@ -0,0 +1,41 @@
+package com.rihal.AppointmentScheduler.repository;
+
+import com.rihal.AppointmentScheduler.model.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, UUID> {
+
+    // ✅ Live queue of one provider-day
+    List<WaitlistEntry> findByProviderIdAndDateAndStatus(UUID providerId, LocalDate date, WaitlistEntry.Status status);
+
+    // ✅ A customer's own entries
+    List<WaitlistEntry> findByCustomerIdAndStatusOrderByDateAsc(UUID customerId, WaitlistEntry.Status status);
+
+    // ✅ Take a waiting entry off the queue; returns 0 if another node served or changed it first
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE WaitlistEntry e
+           SET e.status = :status,
+               e.version = e.version + 1
+         WHERE e.id = :id
+           AND e.version = :version
+           AND e.status = com.rihal.AppointmentScheduler.model.WaitlistEntry.Status.WAITING
+        """)
+    int claim(@Param("id") UUID id,
+              @Param("version") long version,
+              @Param("status") WaitlistEntry.Status status);
+
+    // ✅ Record the appointment a claimed entry was booked into
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WaitlistEntry e SET e.appointmentId = :appointmentId WHERE e.id = :id")
+    int linkAppointment(@Param("id") UUID id, @Param("appointmentId") UUID appointmentId);
+}
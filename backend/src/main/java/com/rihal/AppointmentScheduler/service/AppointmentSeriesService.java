@@ -0,0 +1,268 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rihal.AppointmentScheduler.dto.SeriesRequest;
+import com.rihal.AppointmentScheduler.event.AppointmentChangedEvent;
+import com.rihal.AppointmentScheduler.event.SeriesChangedEvent;
+import com.rihal.AppointmentScheduler.exception.SlotUnavailableException;
+import com.rihal.AppointmentScheduler.model.Appointment;
+import com.rihal.AppointmentScheduler.model.AppointmentSeries;
+import com.rihal.AppointmentScheduler.model.AppointmentStatus;
+import com.rihal.AppointmentScheduler.repository.AppointmentRepository;
+import com.rihal.AppointmentScheduler.repository.AppointmentSeriesRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Creates and changes recurring appointment series. A series is one row however many
+ * occurrences it has; cancelling a single occurrence stores one exception row.
+ */
+@Service
+public class AppointmentSeriesService {
+
+    public static final int MAX_OCCURRENCES = 104;
+    public static final int MAX_INTERVAL_WEEKS = 4;
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final AppointmentSeriesRepository seriesRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final SeriesOccurrences seriesOccurrences;
+    private final SlotService slotService;
+    private final SlotIndex slotIndex;
+    private final BookingLocks bookingLocks;
+    private final NotificationDispatcher notificationDispatcher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WaitlistService waitlistService;
+    private final TransactionTemplate transactionTemplate;
+
+    public AppointmentSeriesService(AppointmentSeriesRepository seriesRepository,
+                                    AppointmentRepository appointmentRepository,
+                                    SeriesOccurrences seriesOccurrences,
+                                    SlotService slotService,
+                                    SlotIndex slotIndex,
+                                    BookingLocks bookingLocks,
+                                    NotificationDispatcher notificationDispatcher,
+                                    ApplicationEventPublisher eventPublisher,
+                                    WaitlistService waitlistService,
+                                    PlatformTransactionManager transactionManager) {
+        this.seriesRepository = seriesRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.seriesOccurrences = seriesOccurrences;
+        this.slotService = slotService;
+        this.slotIndex = slotIndex;
+        this.bookingLocks = bookingLocks;
+        this.notificationDispatcher = notificationDispatcher;
+        this.eventPublisher = eventPublisher;
+        this.waitlistService = waitlistService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Books a whole series at once. Every occurrence is checked against the provider's
+     * hours, breaks, holidays, holds and existing bookings (other series included) with
+     * all affected provider-days locked; if any occurrence conflicts nothing is booked.
+     */
+    public AppointmentSeries create(SeriesRequest request) {
+        if (request.getCustomerId() == null || request.getProviderId() == null
+                || request.getStartDate() == null || request.getStartTime() == null) {
+            throw new IllegalArgumentException("customerId, providerId, startDate and startTime are required");
+        }
+        int interval = request.getIntervalWeeks() == null ? 1 : request.getIntervalWeeks();
+        if (interval < 1 || interval > MAX_INTERVAL_WEEKS) {
+            throw new IllegalArgumentException("intervalWeeks must be between 1 and " + MAX_INTERVAL_WEEKS);
+        }
+        if ((request.getUntilDate() == null) == (request.getCount() == null)) {
+            throw new IllegalArgumentException("Exactly one of untilDate and count is required");
+        }
+        if (request.getCount() != null && (request.getCount() < 1 || request.getCount() > MAX_OCCURRENCES)) {
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_OCCURRENCES);
+        }
+        LocalDate startDate = request.getStartDate();
+        LocalTime start = request.getStartTime();
+        if (LocalDateTime.of(startDate, start).isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("A series cannot start in the past");
+        }
+        LocalDate untilDate = request.getCount() != null
+                ? startDate.plusWeeks((long) (request.getCount() - 1) * interval)
+                : request.getUntilDate();
+        if (untilDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("untilDate must not be before startDate");
+        }
+
+        UUID providerId = request.getProviderId();
+        SlotIndex.Day first = slotService.day(providerId, startDate);
+        int from = SlotEngine.toMinute(start);
+        BookingService.requireSlotStart(first, from);
+        int to = from + first.duration();
+        // Within the provider's hours on the first date; every date is checked again below
+        if (!first.isOpen(from, to)) {
+            throw new SlotUnavailableException("The slot is not available on " + List.of(startDate));
+        }
+
+        AppointmentSeries series = new AppointmentSeries();
+        series.setCustomerId(request.getCustomerId());
+        series.setProviderId(providerId);
+        series.setDayOfWeek(startDate.getDayOfWeek());
+        series.setStartDate(startDate);
+        series.setUntilDate(untilDate);
+        series.setIntervalWeeks(interval);
+        series.setStartTime(start);
+        series.setEndTime(SlotEngine.toTime(to));
+        series.setNotes(request.getNotes());
+        List<LocalDate> dates = series.occurrences(startDate, untilDate);
+        if (dates.size() > MAX_OCCURRENCES) {
+            throw new IllegalArgumentException("A series cannot have more than " + MAX_OCCURRENCES + " occurrences");
+        }
+
+        List<ReentrantLock> locks = bookingLocks.locksFor(Map.of(providerId, dates));
+        locks.forEach(Lock::lock);
+        try {
+            return transactionTemplate.execute(status -> {
+                Map<LocalDate, SlotIndex.Day> days = slotService.dayTemplates(providerId, startDate, untilDate);
+                for (Appointment a : seriesOccurrences.merge(appointmentRepository
+                        .findByProviderIdAndStatusAndDateBetweenOrderByDateAscStartTimeAsc(
+                                providerId, AppointmentStatus.BOOKED, startDate, untilDate), providerId, startDate, untilDate)) {
+                    days.get(a.getDate()).mark(SlotEngine.toMinute(a.getStartTime()), SlotEngine.toMinute(a.getEndTime()));
+                }
+                List<LocalDate> conflicts = new ArrayList<>();
+                for (LocalDate date : dates) {
+                    if (!days.get(date).isFree(from, to)) {
+                        conflicts.add(date);
+                    }
+                }
+                if (!conflicts.isEmpty()) {
+                    throw new SlotUnavailableException("The slot is not available on " + conflicts);
+                }
+
+                AppointmentSeries saved = seriesRepository.save(series);
+                slotIndex.evictProvider(UserIds.toLong(providerId));
+                eventPublisher.publishEvent(new SeriesChangedEvent(saved.getId(), providerId, saved.getCustomerId()));
+                notificationDispatcher.dispatch(
+                        "SERIES_BOOKED",
+                        saved.getCustomerId(),
+                        null,
+                        saved.getId().toString(),
+                        interval == 1 ? "week" : interval + " weeks", saved.getDayOfWeek(), start, startDate, untilDate
+                );
+                return saved;
+            });
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    public AppointmentSeries get(UUID seriesId) {
+        return seriesRepository.findById(seriesId)
+                .orElseThrow(() -> new EntityNotFoundException("Series not found"));
+    }
+
+    public List<AppointmentSeries> forCustomer(UUID customerId) {
+        return seriesRepository.findByCustomerIdOrderByStartDateAsc(customerId);
+    }
+
+    /** Expanded occurrences plus exception rows of one series in {@code [from, to]}. */
+    public List<Appointment> occurrences(UUID seriesId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+        AppointmentSeries series = get(seriesId);
+        List<Appointment> all = new ArrayList<>(seriesOccurrences.expand(List.of(series), from, to));
+        all.addAll(appointmentRepository.findBySeriesIdInAndOriginalDateBetween(List.of(seriesId), from, to));
+        all.sort(SeriesOccurrences.BY_DATE_AND_TIME);
+        return all;
+    }
+
+    /**
+     * Ends a series: occurrences from today on disappear, past ones stay in the history.
+     * Exception rows are left as they are. A series whose last occurrence is already
+     * behind us cannot be cancelled any more.
+     */
+    @Transactional
+    public AppointmentSeries cancel(UUID seriesId) {
+        AppointmentSeries series = get(seriesId);
+        if (series.getStatus() != AppointmentSeries.Status.ACTIVE) {
+            throw new IllegalArgumentException("Series is already cancelled.");
+        }
+        LocalDate today = LocalDate.now();
+        if (series.getUntilDate().isBefore(today)) {
+            throw new IllegalArgumentException("Series has already ended.");
+        }
+        if (series.getStartDate().isBefore(today)) {
+            // untilDate is today or later here, so this only ever shortens the series
+            series.setUntilDate(today.minusDays(1));
+        } else {
+            series.setStatus(AppointmentSeries.Status.CANCELLED);
+        }
+        slotIndex.evictProvider(UserIds.toLong(series.getProviderId()));
+        eventPublisher.publishEvent(new SeriesChangedEvent(series.getId(), series.getProviderId(), series.getCustomerId()));
+        notificationDispatcher.dispatch(
+                "SERIES_CANCELLED",
+                series.getCustomerId(),
+                null,
+                series.getId().toString(),
+                series.getDayOfWeek(), series.getStartTime(), today
+        );
+        return seriesRepository.save(series);
+    }
+
+    /**
+     * Cancels one occurrence by storing it as a cancelled exception row. The freed slot is
+     * offered to the provider-day waitlist in the same transaction, as for any cancellation.
+     */
+    public Appointment cancelOccurrence(UUID seriesId, LocalDate date) {
+        AppointmentSeries series = get(seriesId);
+        if (!series.occursOn(date)) {
+            throw new IllegalArgumentException("The series has no occurrence on " + date);
+        }
+        if (LocalDateTime.of(date, series.getStartTime()).isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Cannot cancel a past occurrence");
+        }
+
+        Lock lock = bookingLocks.lockFor(series.getProviderId(), date);
+        lock.lock();
+        try {
+            return transactionTemplate.execute(status -> {
+                if (!appointmentRepository.findBySeriesIdInAndOriginalDateBetween(List.of(seriesId), date, date).isEmpty()) {
+                    throw new IllegalArgumentException("This occurrence was already changed or cancelled.");
+                }
+                Appointment exception = SeriesOccurrences.occurrence(series, date);
+                exception.setStatus(AppointmentStatus.CANCELLED);
+                exception = appointmentRepository.save(exception);
+
+                eventPublisher.publishEvent(AppointmentChangedEvent.cancelled(exception));
+                notificationDispatcher.dispatch(
+                        "APPOINTMENT_CANCELLED",
+                        exception.getCustomerId(),
+                        exception.getId(),
+                        seriesId.toString(),
+                        date, exception.getStartTime()
+                );
+                waitlistService.allocate(exception);
+                return exception;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+}
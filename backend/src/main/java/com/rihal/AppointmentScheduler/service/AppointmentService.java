@@ -1,15 +1,17 @@
 package com.rihal.AppointmentScheduler.service;
 
-import com.rihal.AppointmentScheduler.dto.BookingRequest;
+import com.rihal.AppointmentScheduler.dto.AppointmentDTO;
+import com.rihal.AppointmentScheduler.event.AppointmentChangedEvent;
 import com.rihal.AppointmentScheduler.model.Appointment;
 import com.rihal.AppointmentScheduler.model.AppointmentStatus;
-import com.rihal.AppointmentScheduler.model.NotificationLog.Channel;
 import com.rihal.AppointmentScheduler.repository.AppointmentRepository;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -18,35 +20,48 @@ import java.util.UUID;
 public class AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
-    private final NotificationService notificationService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticRetry optimisticRetry;
+    private final WaitlistService waitlistService;
 
     // Configurable cancellation limits
     private static final int DEFAULT_CANCELLATION_LIMIT_HOURS = 24;
     private static final int GRACE_PERIOD_MINUTES = 15; // Allow small grace period
 
     public AppointmentService(AppointmentRepository appointmentRepository,
-                              NotificationService notificationService) {
+                              NotificationDispatcher notificationDispatcher,
+                              ApplicationEventPublisher eventPublisher,
+                              OptimisticRetry optimisticRetry,
+                              WaitlistService waitlistService) {
         this.appointmentRepository = appointmentRepository;
-        this.notificationService = notificationService;
+        this.notificationDispatcher = notificationDispatcher;
+        this.eventPublisher = eventPublisher;
+        this.optimisticRetry = optimisticRetry;
+        this.waitlistService = waitlistService;
     }
 
     // --- DTO-based retrieval methods ---
-    public Page<AppointmentDTO> getForCustomer(Long customerId, AppointmentStatus status,
+    public Page<AppointmentDTO> getForCustomer(UUID customerId, AppointmentStatus status,
                                                LocalDateTime from, LocalDateTime to,
                                                Pageable pageable) {
-        return appointmentRepository.searchCustomer(customerId, status, from, to, pageable)
+        return appointmentRepository.searchCustomer(customerId, status, toDate(from), toDate(to), pageable)
                                     .map(AppointmentDTO::from);
     }
 
-    public Page<AppointmentDTO> getForProvider(Long providerId, AppointmentStatus status,
+    public Page<AppointmentDTO> getForProvider(UUID providerId, AppointmentStatus status,
                                                LocalDateTime from, LocalDateTime to,
                                                Pageable pageable) {
-        return appointmentRepository.searchProvider(providerId, status, from, to, pageable)
+        return appointmentRepository.searchProvider(providerId, status, toDate(from), toDate(to), pageable)
                                     .map(AppointmentDTO::from);
     }
 
     // --- Appointment cancellation logic ---
     public String cancelAppointment(UUID appointmentId, UUID userId) {
+        return optimisticRetry.execute(() -> doCancelAppointment(appointmentId, userId));
+    }
+
+    private String doCancelAppointment(UUID appointmentId, UUID userId) {
         Appointment appt = appointmentRepository.findById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
@@ -54,7 +69,7 @@ public class AppointmentService {
             throw new RuntimeException("You can only cancel your own appointments.");
         }
 
-        if (appt.getStatus() == Appointment.Status.CANCELLED) {
+        if (appt.getStatus() == AppointmentStatus.CANCELLED) {
             throw new RuntimeException("Appointment is already cancelled.");
         }
 
@@ -77,20 +92,18 @@ public class AppointmentService {
             }
         }
 
-        appt.setStatus(Appointment.Status.CANCELLED);
+        appt.setStatus(AppointmentStatus.CANCELLED);
         appointmentRepository.save(appt);
+        eventPublisher.publishEvent(AppointmentChangedEvent.cancelled(appt));
 
-        String subject = "Appointment Cancelled";
-        String content = "Your appointment on " + appt.getDate() + " at " + appt.getStartTime() + " has been cancelled.";
-        notificationService.logSent(
+        notificationDispatcher.dispatch(
                 "APPOINTMENT_CANCELLED",
-                Channel.IN_APP,
                 appt.getCustomerId(),
                 appt.getId(),
-                subject,
-                content,
-                null
+                null,
+                appt.getDate(), appt.getStartTime()
         );
+        waitlistService.allocate(appt);
 
         return "Appointment cancelled successfully.";
     }
@@ -109,6 +122,10 @@ public class AppointmentService {
         return appointmentRepository.findByProviderId(providerId);
     }
 
+    private static LocalDate toDate(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toLocalDate();
+    }
+
     private int getProviderCancellationPolicy(UUID providerId) {
         // TODO: Implement provider-specific policies from database
         return DEFAULT_CANCELLATION_LIMIT_HOURS;
@@ -15,12 +15,12 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final NotificationService notificationService;
+    private final NotificationDispatcher notificationDispatcher;
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, NotificationService notificationService) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, NotificationDispatcher notificationDispatcher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.notificationService = notificationService;
+        this.notificationDispatcher = notificationDispatcher;
     }
 
     @Transactional
@@ -44,15 +44,13 @@ public class AuthService {
 
         User saved = userRepository.save(user);
 
-        // Log notification of registration (DB only)
-        notificationService.logSent(
+        // Welcome the user on their enabled channels
+        notificationDispatcher.dispatch(
             "USER_REGISTERED",
-            com.rihal.AppointmentScheduler.model.NotificationLog.Channel.IN_APP,
+            UserIds.toUuid(saved.getId()),
             null,
             null,
-            "Welcome to Appointment Scheduler",
-            "Account created for " + saved.getEmail(),
-            null
+            saved.getEmail()
         );
 
         return saved;
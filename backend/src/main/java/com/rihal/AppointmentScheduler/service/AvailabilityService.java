@@ -27,6 +27,9 @@ public class AvailabilityService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SlotIndex slotIndex;
+
     public List<AvailabilityDTO> getAllAvailabilitiesByProvider(Long providerId) {
         return availabilityRepository.findByProviderId(providerId)
                 .stream()
@@ -67,6 +70,7 @@ public class AvailabilityService {
 
         Availability availability = convertToEntity(availabilityDTO, provider);
         availability = availabilityRepository.save(availability);
+        slotIndex.evictProvider(provider.getId());
         return convertToDTO(availability);
     }
 
@@ -93,14 +97,15 @@ public class AvailabilityService {
         }
 
         existingAvailability = availabilityRepository.save(existingAvailability);
+        slotIndex.evictProvider(existingAvailability.getProvider().getId());
         return convertToDTO(existingAvailability);
     }
 
     public void deleteAvailability(Long id) {
-        if (!availabilityRepository.existsById(id)) {
-            throw new EntityNotFoundException("Availability not found with id: " + id);
-        }
-        availabilityRepository.deleteById(id);
+        Availability availability = availabilityRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Availability not found with id: " + id));
+        availabilityRepository.delete(availability);
+        slotIndex.evictProvider(availability.getProvider().getId());
     }
 
     public AvailabilityDTO toggleAvailabilityStatus(Long id) {
@@ -109,6 +114,7 @@ public class AvailabilityService {
 
         availability.setIsActive(!availability.getIsActive());
         availability = availabilityRepository.save(availability);
+        slotIndex.evictProvider(availability.getProvider().getId());
         return convertToDTO(availability);
     }
 
@@ -1,45 +1,438 @@
 package com.rihal.AppointmentScheduler.service;
 
+import com.rihal.AppointmentScheduler.dto.BatchBookingResult;
+import com.rihal.AppointmentScheduler.dto.BookingRequest;
+import com.rihal.AppointmentScheduler.dto.RescheduleRequest;
+import com.rihal.AppointmentScheduler.event.AppointmentChangedEvent;
+import com.rihal.AppointmentScheduler.exception.SlotUnavailableException;
 import com.rihal.AppointmentScheduler.model.Appointment;
+import com.rihal.AppointmentScheduler.model.AppointmentStatus;
 import com.rihal.AppointmentScheduler.repository.AppointmentRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class BookingService {
 
     private final AppointmentRepository appointmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SlotService slotService;
+    private final BookingLocks bookingLocks;
+    private final NotificationDispatcher notificationDispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final SlotHolds slotHolds;
+    private final SeriesOccurrences seriesOccurrences;
+    private final int maxBatchSize;
+    private final int maxBatchSpanDays;
     private static final int CANCELLATION_LIMIT_HOURS = 24;
+    private static final String NOT_A_SLOT_START = "The start time is not one of the provider's slot times.";
 
-    public BookingService(AppointmentRepository appointmentRepository) {
+    public BookingService(AppointmentRepository appointmentRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          SlotService slotService,
+                          BookingLocks bookingLocks,
+                          NotificationDispatcher notificationDispatcher,
+                          PlatformTransactionManager transactionManager,
+                          SlotHolds slotHolds,
+                          SeriesOccurrences seriesOccurrences,
+                          @Value("${booking.batch.max-size:1000}") int maxBatchSize,
+                          @Value("${booking.batch.max-span-days:92}") int maxBatchSpanDays) {
         this.appointmentRepository = appointmentRepository;
+        this.eventPublisher = eventPublisher;
+        this.slotService = slotService;
+        this.bookingLocks = bookingLocks;
+        this.notificationDispatcher = notificationDispatcher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.slotHolds = slotHolds;
+        this.seriesOccurrences = seriesOccurrences;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchSpanDays = maxBatchSpanDays;
     }
 
-    public void cancel(UUID appointmentId, UUID customerId, boolean isProviderOrAdmin) {
+    /**
+     * Books one slot. Writers for the same provider-day are serialized by a striped
+     * in-process lock held until commit; the overlap check then runs without row locks.
+     * If another node wins the race the unique slot constraint rejects the insert and
+     * the caller gets a {@link SlotUnavailableException} like any other taken slot.
+     */
+    public Appointment book(BookingRequest request) {
+        requireSlot(request);
+        UUID providerId = request.getProviderId();
+        LocalDate date = request.getDate();
+        LocalTime start = request.getStartTime();
+
+        SlotIndex.Day day = slotService.day(providerId, date);
+        int from = SlotEngine.toMinute(start);
+        requireSlotStart(day, from);
+        int to = from + day.duration();
+        // Cheap in-memory rejection before taking the lock: outside hours, on a break, or taken
+        if (!day.isFree(from, to)) {
+            throw new SlotUnavailableException("The selected slot is not available.");
+        }
+        LocalTime end = SlotEngine.toTime(to);
+
+        Lock lock = bookingLocks.lockFor(providerId, date);
+        lock.lock();
+        try {
+            // Re-check under the lock: a hold may have been placed since the first check
+            if (!slotService.day(providerId, date).isFree(from, to)) {
+                throw new SlotUnavailableException("The selected slot is not available.");
+            }
+            return transactionTemplate.execute(status -> {
+                if (appointmentRepository.existsOverlap(providerId, date, start, end, null)
+                        || seriesOccurrences.overlaps(providerId, date, start, end)) {
+                    throw new SlotUnavailableException("The selected slot is already booked.");
+                }
+                Appointment appt = appointmentRepository.saveAndFlush(
+                        newAppointment(request.getCustomerId(), providerId, date, start, end));
+                announceBooked(appt);
+                return appt;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new SlotUnavailableException("The selected slot is already booked.");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves a slot for the hold TTL. The slot disappears from listings right away and
+     * concurrent holders of the same slot are turned away here, before any transaction.
+     */
+    public SlotHolds.Hold hold(BookingRequest request) {
+        requireSlot(request);
+        UUID providerId = request.getProviderId();
+        LocalDate date = request.getDate();
+        LocalTime start = request.getStartTime();
+
+        Lock lock = bookingLocks.lockFor(providerId, date);
+        lock.lock();
+        try {
+            SlotIndex.Day day = slotService.day(providerId, date);
+            int from = SlotEngine.toMinute(start);
+            requireSlotStart(day, from);
+            int to = from + day.duration();
+            if (!day.isFree(from, to)) {
+                throw new SlotUnavailableException("The selected slot is not available.");
+            }
+            SlotHolds.Hold hold = slotHolds.addWithinLimit(request.getCustomerId(), providerId, date, start, SlotEngine.toTime(to));
+            if (hold == null) {
+                throw new IllegalArgumentException("A customer cannot hold more than " + slotHolds.maxPerCustomer() + " slots at a time");
+            }
+            return hold;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Turns a hold into an appointment. The day was already checked when the hold was
+     * placed and nobody else could book the held minutes since, so only the overlap
+     * query guarding against other nodes runs before the insert.
+     */
+    public Appointment confirmHold(UUID holdId) {
+        SlotHolds.Hold hold = slotHolds.get(holdId);
+        if (hold == null) {
+            throw new EntityNotFoundException("Hold not found or expired");
+        }
+        Lock lock = bookingLocks.lockFor(hold.providerId(), hold.date());
+        lock.lock();
+        try {
+            if (slotHolds.take(holdId) == null) {
+                throw new EntityNotFoundException("Hold not found or expired");
+            }
+            Appointment booked = null;
+            try {
+                booked = transactionTemplate.execute(status -> {
+                    if (appointmentRepository.existsOverlap(hold.providerId(), hold.date(),
+                            hold.startTime(), hold.endTime(), null)
+                            || seriesOccurrences.overlaps(hold.providerId(), hold.date(), hold.startTime(), hold.endTime())) {
+                        throw new SlotUnavailableException("The selected slot is already booked.");
+                    }
+                    Appointment appt = appointmentRepository.saveAndFlush(newAppointment(
+                            hold.customerId(), hold.providerId(), hold.date(), hold.startTime(), hold.endTime()));
+                    announceBooked(appt);
+                    eventPublisher.publishEvent(hold.ended(appt.getId()));
+                    return appt;
+                });
+                return booked;
+            } catch (DataIntegrityViolationException e) {
+                throw new SlotUnavailableException("The selected slot is already booked.");
+            } finally {
+                // The booking (if any) is in the index by now, so lifting the hold never exposes the slot
+                slotHolds.unmark(hold);
+                if (booked == null) {
+                    eventPublisher.publishEvent(hold.ended(null));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SlotHolds.Hold getHold(UUID holdId) {
+        SlotHolds.Hold hold = slotHolds.get(holdId);
+        if (hold == null) {
+            throw new EntityNotFoundException("Hold not found or expired");
+        }
+        return hold;
+    }
+
+    public void releaseHold(UUID holdId) {
+        SlotHolds.Hold hold = slotHolds.get(holdId);
+        if (hold == null) {
+            throw new EntityNotFoundException("Hold not found or expired");
+        }
+        Lock lock = bookingLocks.lockFor(hold.providerId(), hold.date());
+        lock.lock();
+        try {
+            slotHolds.release(holdId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves a booked appointment to a new slot in one transaction: the new interval is
+     * checked with {@code existsOverlap} (excluding the appointment itself) and the row is
+     * changed with a single versioned UPDATE. Both provider-days are locked meanwhile, so
+     * the old slot is never released before the new one is secured.
+     *
+     * @param actorId the customer or provider of the appointment; customers are held to the
+     *                same notice period as for cancellations
+     */
+    public Appointment reschedule(UUID appointmentId, RescheduleRequest request, UUID actorId) {
+        if (request.getNewDate() == null || request.getNewStartTime() == null) {
+            throw new IllegalArgumentException("newDate and newStartTime are required");
+        }
+        LocalDate date = request.getNewDate();
+        LocalTime start = request.getNewStartTime();
+        if (LocalDateTime.of(date, start).isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Cannot move an appointment into the past");
+        }
+
         Appointment appt = appointmentRepository.findById(appointmentId)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+                .orElseThrow(() -> new EntityNotFoundException("Appointment not found"));
+        if (appt.getStatus() != AppointmentStatus.BOOKED) {
+            throw new IllegalArgumentException("Only booked appointments can be rescheduled.");
+        }
+        boolean isCustomer = appt.getCustomerId().equals(actorId);
+        if (!isCustomer && !appt.getProviderId().equals(actorId)) {
+            throw new IllegalArgumentException("You can only reschedule your own appointments.");
+        }
+        long hoursBefore = Duration.between(LocalDateTime.now(),
+                LocalDateTime.of(appt.getDate(), appt.getStartTime())).toHours();
+        if (isCustomer && hoursBefore < CANCELLATION_LIMIT_HOURS) {
+            throw new IllegalArgumentException("Must reschedule at least " + CANCELLATION_LIMIT_HOURS + " hours before start.");
+        }
 
-        if (appt.getStatus() == Appointment.Status.CANCELLED) {
-            throw new RuntimeException("Appointment already cancelled.");
+        UUID providerId = appt.getProviderId();
+        SlotIndex.Day day = slotService.day(providerId, date);
+        int from = SlotEngine.toMinute(start);
+        requireSlotStart(day, from);
+        int to = from + day.duration();
+        if (request.getNewEndTime() != null && SlotEngine.toMinute(request.getNewEndTime()) != to) {
+            throw new IllegalArgumentException("newEndTime must be one slot (" + day.duration() + " minutes) after newStartTime");
         }
+        LocalTime end = SlotEngine.toTime(to);
+        LocalDate previousDate = appt.getDate();
+        LocalTime previousStart = appt.getStartTime();
+        LocalTime previousEnd = appt.getEndTime();
+
+        List<ReentrantLock> locks = bookingLocks.locksFor(Map.of(providerId, List.of(previousDate, date)));
+        locks.forEach(Lock::lock);
+        try {
+            // Outside hours, on a break or held by someone else; bookings are left to existsOverlap
+            if (!slotService.day(providerId, date).isOpen(from, to)) {
+                throw new SlotUnavailableException("The selected slot is not available.");
+            }
+            return transactionTemplate.execute(status -> {
+                if (appointmentRepository.existsOverlap(providerId, date, start, end, appointmentId)
+                        || seriesOccurrences.overlaps(providerId, date, start, end)) {
+                    throw new SlotUnavailableException("The selected slot is already booked.");
+                }
+                if (appointmentRepository.reschedule(appointmentId, appt.getVersion(), date, start, end) == 0) {
+                    throw new OptimisticLockingFailureException("Appointment " + appointmentId + " was changed concurrently");
+                }
+                appt.setDate(date);
+                appt.setStartTime(start);
+                appt.setEndTime(end);
 
-        // ✅ Customer must match
-        if (!isProviderOrAdmin && !appt.getCustomerId().equals(customerId)) {
-            throw new RuntimeException("You can only cancel your own appointments.");
+                eventPublisher.publishEvent(AppointmentChangedEvent.rescheduled(appt, previousDate, previousStart, previousEnd));
+                notificationDispatcher.dispatch(
+                        "APPOINTMENT_RESCHEDULED",
+                        appt.getCustomerId(),
+                        appt.getId(),
+                        null,
+                        previousDate, previousStart, date, start
+                );
+                return appt;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new SlotUnavailableException("The selected slot is already booked.");
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
         }
+    }
 
-        // ✅ Time validation (skip if provider/admin)
-        LocalDateTime start = LocalDateTime.of(appt.getDate(), appt.getStartTime());
-        long hoursBefore = Duration.between(LocalDateTime.now(), start).toHours();
+    /**
+     * Books many slots in one transaction. Every provider-day in the batch is locked up
+     * front (in stripe order), each provider's schedule and existing appointments are read
+     * once for the whole date span, and items are checked against those plus the earlier
+     * items of the same batch in memory, so the days one provider's bookings span are
+     * capped as well as the number of items. Accepted rows go out as JDBC batch inserts.
+     * Items that do not fit are reported individually; the batch only fails as a whole if
+     * another node books a conflicting slot while it is being written.
+     */
+    public List<BatchBookingResult> bookBatch(List<BookingRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one booking is required");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch cannot contain more than " + maxBatchSize + " bookings");
+        }
 
-        if (!isProviderOrAdmin && hoursBefore < CANCELLATION_LIMIT_HOURS) {
-            throw new RuntimeException("Must cancel at least " + CANCELLATION_LIMIT_HOURS + " hours before start.");
+        BatchBookingResult[] results = new BatchBookingResult[requests.size()];
+        Map<UUID, List<Integer>> itemsByProvider = new LinkedHashMap<>();
+        Map<UUID, TreeSet<LocalDate>> datesByProvider = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < requests.size(); i++) {
+            BookingRequest r = requests.get(i);
+            if (r == null || r.getCustomerId() == null || r.getProviderId() == null
+                    || r.getDate() == null || r.getStartTime() == null) {
+                results[i] = BatchBookingResult.rejected(i, "customerId, providerId, date and startTime are required");
+            } else if (LocalDateTime.of(r.getDate(), r.getStartTime()).isBefore(now)) {
+                results[i] = BatchBookingResult.rejected(i, "Cannot book a slot in the past");
+            } else {
+                itemsByProvider.computeIfAbsent(r.getProviderId(), k -> new ArrayList<>()).add(i);
+                datesByProvider.computeIfAbsent(r.getProviderId(), k -> new TreeSet<>()).add(r.getDate());
+            }
+        }
+        if (itemsByProvider.isEmpty()) {
+            return Arrays.asList(results);
         }
+        for (TreeSet<LocalDate> dates : datesByProvider.values()) {
+            if (dates.first().plusDays(maxBatchSpanDays).isBefore(dates.last().plusDays(1))) {
+                throw new IllegalArgumentException(
+                        "The bookings of one provider in a batch cannot span more than " + maxBatchSpanDays + " days");
+            }
+        }
+
+        List<ReentrantLock> locks = bookingLocks.locksFor(datesByProvider);
+        locks.forEach(Lock::lock);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Appointment> accepted = new ArrayList<>();
+                List<Integer> acceptedIndexes = new ArrayList<>();
+                itemsByProvider.forEach((providerId, indexes) -> {
+                    TreeSet<LocalDate> dates = datesByProvider.get(providerId);
+                    Map<LocalDate, SlotIndex.Day> days =
+                            slotService.dayTemplates(providerId, dates.first(), dates.last());
+                    for (Appointment a : seriesOccurrences.merge(appointmentRepository.findByProviderIdAndDateBetween(
+                            providerId, dates.first(), dates.last()), providerId, dates.first(), dates.last())) {
+                        if (a.getStatus() == AppointmentStatus.BOOKED) {
+                            days.get(a.getDate()).mark(SlotEngine.toMinute(a.getStartTime()),
+                                    SlotEngine.toMinute(a.getEndTime()));
+                        }
+                    }
+                    for (int i : indexes) {
+                        BookingRequest r = requests.get(i);
+                        SlotIndex.Day day = days.get(r.getDate());
+                        int from = SlotEngine.toMinute(r.getStartTime());
+                        int to = from + day.duration();
+                        if (!day.isSlotStart(from)) {
+                            results[i] = BatchBookingResult.rejected(i, NOT_A_SLOT_START);
+                            continue;
+                        }
+                        if (!day.isFree(from, to)) {
+                            results[i] = BatchBookingResult.rejected(i, "The selected slot is not available.");
+                            continue;
+                        }
+                        day.mark(from, to);
+                        accepted.add(newAppointment(r.getCustomerId(), providerId, r.getDate(),
+                                r.getStartTime(), SlotEngine.toTime(to)));
+                        acceptedIndexes.add(i);
+                    }
+                });
+
+                appointmentRepository.saveAll(accepted);
+                appointmentRepository.flush();
+                for (int k = 0; k < accepted.size(); k++) {
+                    Appointment appt = accepted.get(k);
+                    announceBooked(appt);
+                    results[acceptedIndexes.get(k)] = BatchBookingResult.booked(acceptedIndexes.get(k), appt);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new SlotUnavailableException("A slot in the batch was booked concurrently; nothing was booked.");
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private static void requireSlot(BookingRequest request) {
+        if (request.getCustomerId() == null || request.getProviderId() == null
+                || request.getDate() == null || request.getStartTime() == null) {
+            throw new IllegalArgumentException("customerId, providerId, date and startTime are required");
+        }
+        if (LocalDateTime.of(request.getDate(), request.getStartTime()).isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Cannot book a slot in the past");
+        }
+    }
+
+    // Same alignment as the listings, so a booking never straddles two listed slots
+    static void requireSlotStart(SlotIndex.Day day, int minute) {
+        if (!day.isSlotStart(minute)) {
+            throw new IllegalArgumentException(NOT_A_SLOT_START);
+        }
+    }
+
+    static Appointment newAppointment(UUID customerId, UUID providerId, LocalDate date,
+                                              LocalTime start, LocalTime end) {
+        Appointment appt = new Appointment();
+        appt.setCustomerId(customerId);
+        appt.setProviderId(providerId);
+        appt.setDate(date);
+        appt.setStartTime(start);
+        appt.setEndTime(end);
+        appt.setStatus(AppointmentStatus.BOOKED);
+        return appt;
+    }
 
-        appt.setStatus(Appointment.Status.CANCELLED);
-        appointmentRepository.save(appt);
+    private void announceBooked(Appointment appt) {
+        eventPublisher.publishEvent(AppointmentChangedEvent.booked(appt));
+        notificationDispatcher.dispatch(
+                "APPOINTMENT_BOOKED",
+                appt.getCustomerId(),
+                appt.getId(),
+                null,
+                appt.getDate(), appt.getStartTime()
+        );
     }
 }
@@ -0,0 +1,114 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rihal.AppointmentScheduler.dto.CalendarResponse;
+import com.rihal.AppointmentScheduler.event.AppointmentChangedEvent;
+import com.rihal.AppointmentScheduler.event.SeriesChangedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of calendar responses for dashboards that poll the same ranges.
+ *
+ * Entries are weighed by their number of appointments and evicted by Caffeine's
+ * W-TinyLFU policy once {@code calendar.cache.max-weight} is reached. A booked,
+ * cancelled or rescheduled appointment drops only the provider's entries whose range
+ * contains the affected date(s); a series change drops all of the provider's entries.
+ * A response computed while such a change was committing is returned but not stored.
+ * Keys carry the provider's shared change version ({@link ChangeVersions}), so once a
+ * change made on any instance is visible, lookups use a new key and never get a body
+ * older than their ETag; entries of old versions are dropped by the listeners here or
+ * expire after {@code calendar.cache.ttl}. Hit, miss and eviction counts are published as the
+ * {@code cache.*} meters tagged {@code cache=calendar}.
+ */
+@Component
+public class CalendarCache {
+
+    /**
+     * Everything a calendar response depends on; {@code locale} only matters for weeks.
+     * {@code version} is the provider's change version read before the response is built,
+     * so an entry is only ever served under the ETag of the version it was built from.
+     */
+    public record Key(UUID providerId,
+                      long version,
+                      LocalDate start,
+                      LocalDate end,
+                      CalendarService.Granularity granularity,
+                      boolean countsOnly,
+                      boolean includeCancelled,
+                      Locale locale) {
+
+        public static Key of(UUID providerId, long version, LocalDate start, LocalDate end,
+                             CalendarService.Granularity granularity, boolean countsOnly, boolean includeCancelled,
+                             Locale locale) {
+            return new Key(providerId, version, start, end, granularity, countsOnly, includeCancelled,
+                    granularity == CalendarService.Granularity.WEEK ? locale : null);
+        }
+
+        boolean covers(UUID provider, LocalDate date) {
+            return providerId.equals(provider) && date != null && !date.isBefore(start) && !date.isAfter(end);
+        }
+    }
+
+    private final Cache<Key, CalendarResponse<?>> cache;
+    // Bumped on every change of a provider, so a load that overlapped one is not stored
+    private final Map<UUID, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public CalendarCache(MeterRegistry meterRegistry,
+                         @Value("${calendar.cache.max-weight:200000}") long maxWeight,
+                         @Value("${calendar.cache.ttl:60s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key k, CalendarResponse<?> v) -> (int) Math.min(Integer.MAX_VALUE, 1 + v.total))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "calendar");
+    }
+
+    public <T> CalendarResponse<T> get(Key key, Supplier<CalendarResponse<T>> loader) {
+        @SuppressWarnings("unchecked")
+        CalendarResponse<T> cached = (CalendarResponse<T>) cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long version = version(key.providerId()).get();
+        CalendarResponse<T> loaded = loader.get();
+        if (version(key.providerId()).get() == version) {
+            cache.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        version(event.providerId()).incrementAndGet();
+        cache.asMap().keySet().removeIf(k -> k.covers(event.providerId(), event.date())
+                || k.covers(event.providerId(), event.previousDate()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeriesChanged(SeriesChangedEvent event) {
+        version(event.providerId()).incrementAndGet();
+        cache.asMap().keySet().removeIf(k -> k.providerId().equals(event.providerId()));
+    }
+
+    private AtomicLong version(UUID providerId) {
+        return versions.computeIfAbsent(providerId, id -> new AtomicLong());
+    }
+}
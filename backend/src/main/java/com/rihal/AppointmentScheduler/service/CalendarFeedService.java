@@ -0,0 +1,188 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rihal.AppointmentScheduler.model.Appointment;
+import com.rihal.AppointmentScheduler.model.AppointmentStatus;
+import com.rihal.AppointmentScheduler.model.User;
+import com.rihal.AppointmentScheduler.repository.AppointmentRepository;
+import com.rihal.AppointmentScheduler.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * iCalendar (.ics) feeds of a provider's or customer's appointments for subscription
+ * from external calendar apps.
+ *
+ * A feed is addressed by a random per-user token instead of credentials, so polling
+ * clients cost one indexed lookup rather than a BCrypt check; issuing a new token
+ * revokes the old URL. Feeds cover {@code calendar.feed.past-days} before and
+ * {@code calendar.feed.future-days} after today. Events are written as they are read
+ * from a database cursor merged with lazily expanded series occurrences, so no list of
+ * the window is ever built. Times are floating (no time zone), as they are stored.
+ */
+@Service
+public class CalendarFeedService {
+
+    /** The owner of a feed token and which side of their appointments the feed shows. */
+    public record Feed(UUID ownerId, User.Role role, String token) {}
+
+    private static final Set<AppointmentStatus> LISTED = EnumSet.of(AppointmentStatus.BOOKED, AppointmentStatus.COMPLETED);
+    private static final DateTimeFormatter LOCAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC_DATE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter BASIC_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String UID_DOMAIN = "@appointment-scheduler";
+    // Recurring occurrences are expanded this many days at a time while writing
+    private static final int SERIES_CHUNK_DAYS = 31;
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final UserRepository userRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final SeriesOccurrences seriesOccurrences;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTx;
+    private final int pastDays;
+    private final int futureDays;
+    private final Duration refreshInterval;
+
+    public CalendarFeedService(UserRepository userRepository,
+                               AppointmentRepository appointmentRepository,
+                               SeriesOccurrences seriesOccurrences,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${calendar.feed.past-days:30}") int pastDays,
+                               @Value("${calendar.feed.future-days:365}") int futureDays,
+                               @Value("${calendar.feed.refresh-interval:15m}") Duration refreshInterval) {
+        this.userRepository = userRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.seriesOccurrences = seriesOccurrences;
+        this.entityManager = entityManager;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.pastDays = pastDays;
+        this.futureDays = futureDays;
+        this.refreshInterval = refreshInterval;
+    }
+
+    /** The feed a token opens, if it is current and its owner is a provider or customer. */
+    public Optional<Feed> resolve(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        return userRepository.findByCalendarFeedToken(token)
+                .filter(u -> u.getRole() == User.Role.PROVIDER || u.getRole() == User.Role.CUSTOMER)
+                .map(u -> new Feed(UserIds.toUuid(u.getId()), u.getRole(), token));
+    }
+
+    /** Gives the user a new feed token, replacing (and so revoking) any previous one. */
+    public Optional<String> issueToken(Long userId) {
+        return userRepository.findById(userId).map(user -> {
+            byte[] bytes = new byte[TOKEN_BYTES];
+            random.nextBytes(bytes);
+            String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+            user.setCalendarFeedToken(token);
+            userRepository.save(user);
+            return token;
+        });
+    }
+
+    /** Removes the user's feed token; false if the user does not exist. */
+    public boolean revokeToken(Long userId) {
+        return userRepository.findById(userId).map(user -> {
+            user.setCalendarFeedToken(null);
+            userRepository.save(user);
+            return true;
+        }).orElse(false);
+    }
+
+    /** First day of the feed window on {@code today}. */
+    public LocalDate windowStart(LocalDate today) {
+        return today.minusDays(pastDays);
+    }
+
+    /** Last day of the feed window on {@code today}. */
+    public LocalDate windowEnd(LocalDate today) {
+        return today.plusDays(futureDays);
+    }
+
+    /** Writes the feed's VCALENDAR for {@code [from, to]} to {@code out} while the rows are read. */
+    public void write(Feed feed, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        String stamp = UTC_DATE_TIME.format(Instant.now());
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<Appointment> rows = feed.role() == User.Role.PROVIDER
+                             ? appointmentRepository.streamCalendar(feed.ownerId(), from, to, LISTED)
+                             : appointmentRepository.streamCustomerCalendar(feed.ownerId(), from, to, LISTED);
+                     IcsWriter ics = new IcsWriter(out)) {
+                    Iterator<Appointment> occurrences = feed.role() == User.Role.PROVIDER
+                            ? seriesOccurrences.iterate(feed.ownerId(), from, to, SERIES_CHUNK_DAYS)
+                            : seriesOccurrences.iterateForCustomer(feed.ownerId(), from, to, SERIES_CHUNK_DAYS);
+                    Iterator<Appointment> appointments = SeriesOccurrences.interleave(rows.iterator(), occurrences);
+
+                    ics.line("BEGIN", "VCALENDAR")
+                            .line("VERSION", "2.0")
+                            .line("PRODID", "-//Rihal//Appointment Scheduler//EN")
+                            .line("CALSCALE", "GREGORIAN")
+                            .line("METHOD", "PUBLISH")
+                            .text("X-WR-CALNAME", "Appointments")
+                            .line("REFRESH-INTERVAL;VALUE=DURATION", refreshInterval.toString())
+                            .line("X-PUBLISHED-TTL", refreshInterval.toString());
+                    while (appointments.hasNext()) {
+                        Appointment a = appointments.next();
+                        writeEvent(ics, a, stamp);
+                        if (a.getId() != null) {
+                            entityManager.detach(a);
+                        }
+                    }
+                    ics.line("END", "VCALENDAR");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeEvent(IcsWriter ics, Appointment a, String stamp) throws IOException {
+        // Expanded occurrences have no row; their identity is the series and the date
+        String uid = a.getId() != null ? a.getId().toString()
+                : a.getSeriesId() + "-" + BASIC_DATE.format(a.getOriginalDate());
+        ics.line("BEGIN", "VEVENT")
+                .line("UID", uid + UID_DOMAIN)
+                .line("DTSTAMP", stamp)
+                .line("DTSTART", LOCAL_DATE_TIME.format(a.getDate().atTime(a.getStartTime())))
+                .line("DTEND", LOCAL_DATE_TIME.format(a.getDate().atTime(a.getEndTime())));
+        if (a.getId() != null) {
+            ics.line("SEQUENCE", Long.toString(a.getVersion()));
+        }
+        ics.line("STATUS", "CONFIRMED")
+                .text("SUMMARY", a.getSeriesId() != null ? "Recurring appointment" : "Appointment");
+        if (a.getNotes() != null && !a.getNotes().isBlank()) {
+            ics.text("DESCRIPTION", a.getNotes());
+        }
+        ics.line("END", "VEVENT");
+    }
+}
@@ -2,28 +2,55 @@ package com.rihal.AppointmentScheduler.service;
 
 import com.rihal.AppointmentScheduler.dto.*;
 import com.rihal.AppointmentScheduler.model.Appointment;
+import com.rihal.AppointmentScheduler.model.AppointmentStatus;
 import com.rihal.AppointmentScheduler.repository.AppointmentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.*;
 import java.time.temporal.WeekFields;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CalendarService {
 
+    public enum Granularity { DAY, WEEK, MONTH }
+
+    // Recurring occurrences are expanded this many days at a time while streaming
+    private static final int STREAM_SERIES_CHUNK_DAYS = 31;
+
     private final AppointmentRepository repo;
+    private final SeriesOccurrences seriesOccurrences;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTx;
 
-    public CalendarService(AppointmentRepository repo) {
+    public CalendarService(AppointmentRepository repo, SeriesOccurrences seriesOccurrences,
+                           ObjectMapper objectMapper, EntityManager entityManager,
+                           PlatformTransactionManager transactionManager) {
         this.repo = repo;
+        this.seriesOccurrences = seriesOccurrences;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
     }
 
     public CalendarResponse<DayBucketDTO> daily(UUID providerId, LocalDate start, LocalDate end, boolean includeCancelled) {
-        List<Appointment> data = repo.findByProviderIdAndDateBetween(providerId, start, end);
+        List<Appointment> data = seriesOccurrences.merge(
+                repo.findByProviderIdAndDateBetween(providerId, start, end), providerId, start, end);
         List<Appointment> filtered = includeCancelled ? data
-                : data.stream().filter(a -> a.getStatus() == Appointment.Status.BOOKED).toList();
+                : data.stream().filter(a -> a.getStatus() == AppointmentStatus.BOOKED).toList();
 
         Map<LocalDate, List<Appointment>> grouped = filtered.stream()
                 .collect(Collectors.groupingBy(Appointment::getDate, TreeMap::new, Collectors.toList()));
@@ -48,11 +75,17 @@ public class CalendarService {
 
     public CalendarResponse<WeekBucketDTO> weekly(UUID providerId, LocalDate start, LocalDate end, boolean includeCancelled, Locale locale) {
         WeekFields wf = WeekFields.of(locale == null ? Locale.US : locale); // ISO weeks with Locale control
-        List<Appointment> data = repo.findByProviderIdAndDateBetween(providerId, start, end);
+        List<Appointment> data = seriesOccurrences.merge(
+                repo.findByProviderIdAndDateBetween(providerId, start, end), providerId, start, end);
         List<Appointment> filtered = includeCancelled ? data
-                : data.stream().filter(a -> a.getStatus() == Appointment.Status.BOOKED).toList();
+                : data.stream().filter(a -> a.getStatus() == AppointmentStatus.BOOKED).toList();
 
-        record WeekKey(int weekYear, int week) {}
+        record WeekKey(int weekYear, int week) implements Comparable<WeekKey> {
+            @Override
+            public int compareTo(WeekKey o) {
+                return weekYear != o.weekYear ? Integer.compare(weekYear, o.weekYear) : Integer.compare(week, o.week);
+            }
+        }
         Function<Appointment, WeekKey> keyFn = a -> {
             LocalDate d = a.getDate();
             return new WeekKey(d.get(wf.weekBasedYear()), d.get(wf.weekOfWeekBasedYear()));
@@ -93,9 +126,10 @@ public class CalendarService {
     }
 
     public CalendarResponse<MonthBucketDTO> monthly(UUID providerId, LocalDate start, LocalDate end, boolean includeCancelled) {
-        List<Appointment> data = repo.findByProviderIdAndDateBetween(providerId, start, end);
+        List<Appointment> data = seriesOccurrences.merge(
+                repo.findByProviderIdAndDateBetween(providerId, start, end), providerId, start, end);
         List<Appointment> filtered = includeCancelled ? data
-                : data.stream().filter(a -> a.getStatus() == Appointment.Status.BOOKED).toList();
+                : data.stream().filter(a -> a.getStatus() == AppointmentStatus.BOOKED).toList();
 
         Map<YearMonth, List<Appointment>> grouped = filtered.stream()
                 .collect(Collectors.groupingBy(a -> YearMonth.from(a.getDate()), TreeMap::new, Collectors.toList()));
@@ -118,6 +152,164 @@ public class CalendarService {
         return resp;
     }
 
+    /**
+     * Counts-only variant of {@link #daily}: the database groups and counts the stored
+     * appointments, recurring occurrences are counted without being built, and only one
+     * total per day is returned.
+     */
+    public CalendarResponse<CountBucketDTO> dailyCounts(UUID providerId, LocalDate start, LocalDate end, boolean includeCancelled) {
+        Map<String, CountBucketDTO> buckets = new LinkedHashMap<>();
+        countPerDay(providerId, start, end, includeCancelled)
+                .forEach((date, total) -> buckets.put(date.toString(), CountBucketDTO.of(date, date, total)));
+        return countsResponse(providerId, start, end, buckets);
+    }
+
+    /**
+     * Counts-only variant of {@link #weekly}. Week numbering depends on the locale, so the
+     * database counts per day and the days are summed into weeks here.
+     */
+    public CalendarResponse<CountBucketDTO> weeklyCounts(UUID providerId, LocalDate start, LocalDate end, boolean includeCancelled, Locale locale) {
+        WeekFields wf = WeekFields.of(locale == null ? Locale.US : locale);
+        Map<String, CountBucketDTO> buckets = new LinkedHashMap<>();
+        countPerDay(providerId, start, end, includeCancelled).forEach((date, total) -> {
+            String key = date.get(wf.weekBasedYear()) + "-W" + String.format("%02d", date.get(wf.weekOfWeekBasedYear()));
+            LocalDate weekStart = date.with(wf.dayOfWeek(), 1);
+            buckets.computeIfAbsent(key, k -> CountBucketDTO.of(weekStart, weekStart.plusDays(6), 0)).total += total;
+        });
+        return countsResponse(providerId, start, end, buckets);
+    }
+
+    /** Counts-only variant of {@link #monthly}, grouped by month in the database. */
+    public CalendarResponse<CountBucketDTO> monthlyCounts(UUID providerId, LocalDate start, LocalDate end, boolean includeCancelled) {
+        NavigableMap<YearMonth, Long> perMonth = new TreeMap<>();
+        for (AppointmentRepository.MonthCount c : repo.countPerMonth(providerId, start, end, statuses(includeCancelled))) {
+            perMonth.merge(YearMonth.of(c.getYear(), c.getMonth()), c.getTotal(), Long::sum);
+        }
+        seriesOccurrences.countByDate(providerId, start, end)
+                .forEach((date, total) -> perMonth.merge(YearMonth.from(date), total, Long::sum));
+
+        Map<String, CountBucketDTO> buckets = new LinkedHashMap<>();
+        perMonth.forEach((month, total) ->
+                buckets.put(month.toString(), CountBucketDTO.of(month.atDay(1), month.atEndOfMonth(), total)));
+        return countsResponse(providerId, start, end, buckets);
+    }
+
+    /** Stored appointments counted by the database plus recurring occurrences, per day in date order. */
+    private NavigableMap<LocalDate, Long> countPerDay(UUID providerId, LocalDate start, LocalDate end, boolean includeCancelled) {
+        NavigableMap<LocalDate, Long> perDay = seriesOccurrences.countByDate(providerId, start, end);
+        for (AppointmentRepository.DayCount c : repo.countPerDay(providerId, start, end, statuses(includeCancelled))) {
+            perDay.merge(c.getDate(), c.getTotal(), Long::sum);
+        }
+        return perDay;
+    }
+
+    // Series occurrences are always BOOKED; cancelled ones are stored rows
+    private static Collection<AppointmentStatus> statuses(boolean includeCancelled) {
+        return includeCancelled ? EnumSet.allOf(AppointmentStatus.class) : EnumSet.of(AppointmentStatus.BOOKED);
+    }
+
+    private static CalendarResponse<CountBucketDTO> countsResponse(UUID providerId, LocalDate start, LocalDate end,
+                                                                  Map<String, CountBucketDTO> buckets) {
+        CalendarResponse<CountBucketDTO> resp = new CalendarResponse<>();
+        resp.providerId = providerId;
+        resp.rangeStart = start;
+        resp.rangeEnd = end;
+        resp.total = buckets.values().stream().mapToLong(b -> b.total).sum();
+        resp.buckets = buckets;
+        return resp;
+    }
+
+    /**
+     * Writes the same JSON as {@link #daily}, {@link #weekly} or {@link #monthly} to
+     * {@code out} while the rows are read. Stored appointments come from a database cursor
+     * in date order and are detached once written, recurring occurrences are expanded a
+     * month at a time and merged in, and each bucket is flushed when it closes, so memory
+     * stays flat however long the range is. The overall {@code total} comes last.
+     */
+    public void write(Granularity granularity, UUID providerId, LocalDate start, LocalDate end,
+                      boolean includeCancelled, Locale locale, OutputStream out) throws IOException {
+        WeekFields wf = WeekFields.of(locale == null ? Locale.US : locale);
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<Appointment> rows = repo.streamCalendar(providerId, start, end, statuses(includeCancelled));
+                     JsonGenerator g = objectMapper.getFactory().createGenerator(out)) {
+                    g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    Iterator<Appointment> appointments = SeriesOccurrences.interleave(rows.iterator(),
+                            seriesOccurrences.iterate(providerId, start, end, STREAM_SERIES_CHUNK_DAYS));
+
+                    g.writeStartObject();
+                    g.writeObjectField("providerId", providerId);
+                    g.writeObjectField("rangeStart", start);
+                    g.writeObjectField("rangeEnd", end);
+                    g.writeObjectFieldStart("buckets");
+                    String bucket = null;
+                    long bucketTotal = 0;
+                    long total = 0;
+                    while (appointments.hasNext()) {
+                        Appointment a = appointments.next();
+                        String key = bucketKey(granularity, a.getDate(), wf);
+                        if (!key.equals(bucket)) {
+                            if (bucket != null) {
+                                endBucket(g, bucketTotal);
+                            }
+                            startBucket(g, granularity, key, a.getDate(), wf);
+                            bucket = key;
+                            bucketTotal = 0;
+                        }
+                        g.writeObject(toDto(a));
+                        bucketTotal++;
+                        total++;
+                        if (a.getId() != null) {
+                            entityManager.detach(a);
+                        }
+                    }
+                    if (bucket != null) {
+                        endBucket(g, bucketTotal);
+                    }
+                    g.writeEndObject();
+                    g.writeNumberField("total", total);
+                    g.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String bucketKey(Granularity granularity, LocalDate date, WeekFields wf) {
+        return switch (granularity) {
+            case DAY -> date.toString();
+            case WEEK -> date.get(wf.weekBasedYear()) + "-W" + String.format("%02d", date.get(wf.weekOfWeekBasedYear()));
+            case MONTH -> YearMonth.from(date).toString();
+        };
+    }
+
+    private static void startBucket(JsonGenerator g, Granularity granularity, String key, LocalDate date, WeekFields wf)
+            throws IOException {
+        g.writeObjectFieldStart(key);
+        switch (granularity) {
+            case DAY -> g.writeObjectField("date", date);
+            case WEEK -> {
+                LocalDate weekStart = date.with(wf.dayOfWeek(), 1);
+                g.writeNumberField("week", date.get(wf.weekOfWeekBasedYear()));
+                g.writeNumberField("weekYear", date.get(wf.weekBasedYear()));
+                g.writeObjectField("start", weekStart);
+                g.writeObjectField("end", weekStart.plusDays(6));
+            }
+            case MONTH -> g.writeObjectField("month", YearMonth.from(date));
+        }
+        g.writeArrayFieldStart("items");
+    }
+
+    private static void endBucket(JsonGenerator g, long total) throws IOException {
+        g.writeEndArray();
+        g.writeNumberField("total", total);
+        g.writeEndObject();
+        g.flush();
+    }
+
     private AppointmentDTO toDto(Appointment a) {
         AppointmentDTO d = new AppointmentDTO();
         d.id = a.getId();
@@ -126,7 +318,8 @@ public class CalendarService {
         d.date = a.getDate();
         d.startTime = a.getStartTime();
         d.endTime = a.getEndTime();
-        d.status = a.getStatus().name();
+        d.status = a.getStatus();
+        d.seriesId = a.getSeriesId();
         return d;
     }
 }
@@ -0,0 +1,179 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import com.rihal.AppointmentScheduler.event.AppointmentChangedEvent;
+import com.rihal.AppointmentScheduler.event.SeriesChangedEvent;
+import com.rihal.AppointmentScheduler.repository.ChangeVersionRepository;
+
+/**
+ * Per-provider and per-customer change versions, used as ETags for appointment and
+ * calendar reads.
+ *
+ * Every appointment or series change bumps the version of its provider and customer, so
+ * the versions are shared by all instances. Bumps are collected per transaction and
+ * applied once each after it commits, every scope in its own short transaction, so the
+ * counter rows are never locked while a booking transaction is open and bookings of one
+ * provider do not queue behind each other on them. Until a bump lands a reader may get
+ * the new data under the previous version, which only costs that client one extra 200.
+ * A conditional read costs one primary-key lookup instead of the query.
+ *
+ * A failed bump is retried a few times with backoff. If it still fails the change is
+ * committed but the version is not, so every ETag also carries the current
+ * {@code change-versions.etag-lifetime} window: a stale 304 then lasts until the window
+ * rolls over at most, at the price of one full response per client and window.
+ */
+@Component
+public class ChangeVersions {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeVersions.class);
+
+    private static final String PROVIDER = "provider:";
+    private static final String CUSTOMER = "customer:";
+
+    private final ChangeVersionRepository repository;
+    private final TransactionTemplate bumpTx;
+    private final int bumpAttempts;
+    private final long bumpBackoffMs;
+    private final long etagLifetimeMs;
+
+    public ChangeVersions(ChangeVersionRepository repository, PlatformTransactionManager transactionManager,
+                          @Value("${change-versions.bump-attempts:3}") int bumpAttempts,
+                          @Value("${change-versions.bump-backoff-ms:50}") long bumpBackoffMs,
+                          @Value("${change-versions.etag-lifetime:5m}") Duration etagLifetime) {
+        this.repository = repository;
+        this.bumpTx = new TransactionTemplate(transactionManager);
+        this.bumpTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.bumpAttempts = Math.max(1, bumpAttempts);
+        this.bumpBackoffMs = bumpBackoffMs;
+        this.etagLifetimeMs = Math.max(1, etagLifetime.toMillis());
+    }
+
+    /** Current change version of a provider's appointments (0 before the first change). */
+    public long providerVersion(UUID providerId) {
+        return repository.findVersion(PROVIDER + providerId).orElse(0L);
+    }
+
+    /** Strong ETag of a provider's appointments as seen through {@code request}. */
+    public String providerETag(UUID providerId, Object... request) {
+        return providerETagAt(providerId, providerVersion(providerId), request);
+    }
+
+    /** Same as {@link #providerETag} for a version the caller has already read. */
+    public String providerETagAt(UUID providerId, long version, Object... request) {
+        return etag(PROVIDER + providerId, version, request);
+    }
+
+    /** Strong ETag of a customer's appointments as seen through {@code request}. */
+    public String customerETag(UUID customerId, Object... request) {
+        String scope = CUSTOMER + customerId;
+        return etag(scope, repository.findVersion(scope).orElse(0L), request);
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        touch(PROVIDER + event.providerId(), CUSTOMER + event.customerId());
+    }
+
+    @EventListener
+    public void onSeriesChanged(SeriesChangedEvent event) {
+        touch(PROVIDER + event.providerId(), CUSTOMER + event.customerId());
+    }
+
+    private String etag(String scope, long version, Object[] request) {
+        long window = System.currentTimeMillis() / etagLifetimeMs;
+        StringBuilder key = new StringBuilder(scope).append('|').append(version).append('|').append(window);
+        for (Object part : request) {
+            key.append('|').append(part);
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private void touch(String... scopes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bumpAll(Set.of(scopes));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> scopesOfTx = new TreeSet<>();
+            TransactionSynchronizationManager.bindResource(this, scopesOfTx);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpAll(scopesOfTx);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeVersions.this);
+                }
+            });
+            pending = scopesOfTx;
+        }
+        pending.addAll(Set.of(scopes));
+    }
+
+    // The change is already committed here, so a bump that keeps failing is logged rather
+    // than thrown; the ETag window bounds how long the old version is served
+    private void bumpAll(Set<String> scopes) {
+        for (String scope : scopes) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    bump(scope);
+                    break;
+                } catch (RuntimeException e) {
+                    if (attempt >= bumpAttempts) {
+                        log.warn("Could not bump change version of {} after {} attempts", scope, attempt, e);
+                        break;
+                    }
+                    log.debug("Could not bump change version of {}, retrying (attempt {}/{})", scope, attempt, bumpAttempts);
+                    if (!backoff(attempt)) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong((bumpBackoffMs << Math.min(attempt - 1, 10)) + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void bump(String scope) {
+        if (Integer.valueOf(1).equals(bumpTx.execute(status -> repository.increment(scope)))) {
+            return;
+        }
+        try {
+            bumpTx.executeWithoutResult(status -> repository.insert(scope));
+        } catch (DataIntegrityViolationException e) {
+            // Another writer created the counter in the meantime
+            bumpTx.execute(status -> repository.increment(scope));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.rihal.AppointmentScheduler.service;
+
+import com.rihal.AppointmentScheduler.model.NotificationLog.Channel;
+import com.rihal.AppointmentScheduler.model.User;
+
+/**
+ * Delivers notifications over one {@link Channel}. Called by the
+ * {@link NotificationDispatcher} on that channel's own threads; {@code send} may block
+ * and throws when the notification could not be delivered.
+ */
+public interface ChannelSender {
+
+    Channel channel();
+
+    /** False when the channel is off or the recipient has no address for it. */
+    boolean canReach(User recipient);
+
+    void send(NotificationDispatcher.Notification notification, User recipient) throws Exception;
+}
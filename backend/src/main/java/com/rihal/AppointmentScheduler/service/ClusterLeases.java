@@ -0,0 +1,156 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rihal.AppointmentScheduler.model.SchedulerLease;
+import com.rihal.AppointmentScheduler.repository.SchedulerLeaseRepository;
+
+/**
+ * Splits partitioned background work between application instances through expiring
+ * leases in the {@code scheduler_leases} table.
+ *
+ * Each instance keeps a membership lease per group alive and aims to hold
+ * {@code ceil(partitions / live members)} partition leases: it renews up to that many of
+ * its own, releases the rest and takes free or expired ones until it has its share.
+ * Called by every member well within the lease TTL, this settles on an even split, and
+ * the partitions of a crashed instance move to the others once its leases expire.
+ */
+@Component
+public class ClusterLeases {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterLeases.class);
+
+    private final SchedulerLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+    private final Duration ttl;
+
+    public ClusterLeases(SchedulerLeaseRepository leaseRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${cluster.node-id:${random.uuid}}") String nodeId,
+                         @Value("${cluster.lease.ttl-ms:30000}") long ttlMs) {
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.nodeId = nodeId;
+        this.ttl = Duration.ofMillis(ttlMs);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Renews this instance's membership of {@code group} and its share of the group's
+     * partition leases; returns the partitions it holds until the next call.
+     */
+    public Set<Integer> rebalance(String group, int partitions) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(ttl);
+        String memberPrefix = group + "/member/";
+        acquire(memberPrefix + nodeId, now, expiresAt);
+
+        Map<String, SchedulerLease> leases = new HashMap<>();
+        long members = 0;
+        boolean staleMembers = false;
+        for (SchedulerLease lease : transactionTemplate.execute(s -> leaseRepository.findByPrefix(group + "/"))) {
+            leases.put(lease.getName(), lease);
+            if (lease.getName().startsWith(memberPrefix)) {
+                if (lease.getOwner() != null && lease.getExpiresAt().isAfter(now)) {
+                    members++;
+                } else if (lease.getExpiresAt().isBefore(now.minus(ttl))) {
+                    staleMembers = true;
+                }
+            }
+        }
+        if (staleMembers) {
+            // Instances that went away; node ids are usually random, so their rows never come back
+            transactionTemplate.execute(s -> leaseRepository.deleteExpired(memberPrefix, now.minus(ttl)));
+        }
+        int share = (int) ((partitions + Math.max(1, members) - 1) / Math.max(1, members));
+
+        List<Integer> mine = new ArrayList<>();
+        List<Integer> free = new ArrayList<>();
+        for (int p = 0; p < partitions; p++) {
+            SchedulerLease lease = leases.get(partitionLease(group, p));
+            if (lease == null) {
+                insertFree(partitionLease(group, p), now);
+                free.add(p);
+            } else if (nodeId.equals(lease.getOwner()) && lease.getExpiresAt().isAfter(now)) {
+                mine.add(p);
+            } else if (lease.getOwner() == null || !lease.getExpiresAt().isAfter(now)) {
+                free.add(p);
+            }
+        }
+
+        Set<Integer> held = new TreeSet<>();
+        for (int p : mine) {
+            if (held.size() < share && acquire(partitionLease(group, p), now, expiresAt)) {
+                held.add(p);
+            } else {
+                release(partitionLease(group, p));
+            }
+        }
+        for (int p : free) {
+            if (held.size() >= share) {
+                break;
+            }
+            if (acquire(partitionLease(group, p), now, expiresAt)) {
+                held.add(p);
+            }
+        }
+        return held;
+    }
+
+    /** Gives up every lease of {@code group}, e.g. on shutdown, so others take over at once. */
+    public void releaseAll(String group) {
+        for (SchedulerLease lease : transactionTemplate.execute(s -> leaseRepository.findByPrefix(group + "/"))) {
+            if (nodeId.equals(lease.getOwner())) {
+                release(lease.getName());
+            }
+        }
+    }
+
+    private boolean acquire(String name, LocalDateTime now, LocalDateTime expiresAt) {
+        Integer updated = transactionTemplate.execute(s -> leaseRepository.tryAcquire(name, nodeId, now, expiresAt));
+        if (updated != null && updated > 0) {
+            return true;
+        }
+        if (!leaseRepository.existsById(name)) {
+            insertFree(name, now);
+            updated = transactionTemplate.execute(s -> leaseRepository.tryAcquire(name, nodeId, now, expiresAt));
+            return updated != null && updated > 0;
+        }
+        return false;
+    }
+
+    private void release(String name) {
+        transactionTemplate.execute(s -> leaseRepository.release(name, nodeId));
+    }
+
+    private void insertFree(String name, LocalDateTime now) {
+        try {
+            transactionTemplate.executeWithoutResult(s -> leaseRepository.insertFree(name, now));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Lease {} was created concurrently", name);
+        }
+    }
+
+    private static String partitionLease(String group, int partition) {
+        return group + "/partition/" + partition;
+    }
+}
@@ -0,0 +1,134 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import com.rihal.AppointmentScheduler.model.NotificationLog.Channel;
+import com.rihal.AppointmentScheduler.model.User;
+
+/**
+ * The EMAIL channel: sends notifications through {@link JavaMailSender}.
+ *
+ * Runs on the email threads of the {@link NotificationDispatcher}, which are virtual, so
+ * a slow SMTP server only parks cheap threads and never a booking request. Sends are
+ * limited to {@code rate-per-second} (token bucket, bursts of {@code burst}) and to
+ * {@code max-concurrent-per-host} open SMTP conversations per server. Transient failures
+ * are retried with exponential backoff and full jitter; the dispatcher records the
+ * outcome as an EMAIL notification log.
+ *
+ * Delivery is enabled when a mail sender is configured ({@code spring.mail.host}).
+ */
+@Component
+public class EmailDelivery implements ChannelSender {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDelivery.class);
+
+    private final JavaMailSender mailSender;
+    private final NotificationTemplates templates;
+    private final String from;
+    private final int maxConcurrentPerHost;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final TokenBucket rateLimit;
+    private final Map<String, Semaphore> hostLimits = new ConcurrentHashMap<>();
+
+    public EmailDelivery(Optional<JavaMailSender> mailSender,
+                         NotificationTemplates templates,
+                         @Value("${mail.delivery.from:no-reply@appointments.local}") String from,
+                         @Value("${mail.delivery.max-concurrent-per-host:4}") int maxConcurrentPerHost,
+                         @Value("${mail.delivery.rate-per-second:10}") double ratePerSecond,
+                         @Value("${mail.delivery.burst:20}") int burst,
+                         @Value("${mail.delivery.max-attempts:5}") int maxAttempts,
+                         @Value("${mail.delivery.initial-backoff-ms:1000}") long initialBackoffMs,
+                         @Value("${mail.delivery.max-backoff-ms:60000}") long maxBackoffMs) {
+        this.mailSender = mailSender.orElse(null);
+        this.templates = templates;
+        this.from = from;
+        this.maxConcurrentPerHost = Math.max(1, maxConcurrentPerHost);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.rateLimit = new TokenBucket(ratePerSecond, burst);
+    }
+
+    public boolean isEnabled() {
+        return mailSender != null;
+    }
+
+    @Override
+    public Channel channel() {
+        return Channel.EMAIL;
+    }
+
+    @Override
+    public boolean canReach(User recipient) {
+        return mailSender != null && recipient != null && recipient.getEmail() != null;
+    }
+
+    /**
+     * Sends the email, retrying transient failures; throws the last error once the
+     * attempts run out or the error is permanent.
+     */
+    @Override
+    public void send(NotificationDispatcher.Notification notification, User recipient)
+            throws InterruptedException {
+        NotificationTemplates.Rendered content = templates.render(notification.eventType(), notification.params());
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(recipient.getEmail());
+        message.setSubject(content.subject());
+        message.setText(content.body());
+        Semaphore hostLimit = hostLimits.computeIfAbsent(host(), h -> new Semaphore(maxConcurrentPerHost));
+
+        for (int attempt = 1; ; attempt++) {
+            rateLimit.acquire();
+            hostLimit.acquire();
+            try {
+                mailSender.send(message);
+                return;
+            } catch (MailException e) {
+                if (isPermanent(e) || attempt >= maxAttempts) {
+                    log.warn("Giving up on {} email to {} after {} attempt(s)",
+                            notification.eventType(), recipient.getEmail(), attempt);
+                    throw e;
+                }
+                log.debug("Email to {} failed (attempt {}/{}), retrying", recipient.getEmail(), attempt, maxAttempts, e);
+            } finally {
+                hostLimit.release();
+            }
+            backoff(attempt);
+        }
+    }
+
+    /** Errors a retry cannot fix: a malformed message or rejected credentials. */
+    private static boolean isPermanent(MailException e) {
+        return e instanceof MailParseException
+                || e instanceof MailPreparationException
+                || e instanceof MailAuthenticationException;
+    }
+
+    private void backoff(int attempt) throws InterruptedException {
+        long cap = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+    }
+
+    private String host() {
+        return mailSender instanceof JavaMailSenderImpl impl && impl.getHost() != null ? impl.getHost() : "default";
+    }
+}
@@ -23,6 +23,9 @@ public class HolidayService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SlotIndex slotIndex;
+
     public List<HolidayDTO> getAllHolidaysByProvider(Long providerId) {
         return holidayRepository.findByProviderId(providerId)
                 .stream()
@@ -76,6 +79,7 @@ public class HolidayService {
 
         Holiday holiday = convertToEntity(holidayDTO, provider);
         holiday = holidayRepository.save(holiday);
+        slotIndex.evictProvider(provider.getId());
         return convertToDTO(holiday);
     }
 
@@ -101,14 +105,15 @@ public class HolidayService {
         existingHoliday.setEndTime(holidayDTO.getEndTime());
 
         existingHoliday = holidayRepository.save(existingHoliday);
+        slotIndex.evictProvider(existingHoliday.getProvider().getId());
         return convertToDTO(existingHoliday);
     }
 
     public void deleteHoliday(Long id) {
-        if (!holidayRepository.existsById(id)) {
-            throw new EntityNotFoundException("Holiday not found with id: " + id);
-        }
-        holidayRepository.deleteById(id);
+        Holiday holiday = holidayRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Holiday not found with id: " + id));
+        holidayRepository.delete(holiday);
+        slotIndex.evictProvider(holiday.getProvider().getId());
     }
 
     public boolean isHoliday(Long providerId, LocalDate date) {
@@ -0,0 +1,85 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal RFC 5545 content-line writer: CRLF line ends, TEXT escaping and folding of
+ * lines longer than 75 octets. Lines go straight to the underlying stream through a
+ * small buffer; closing the writer flushes but leaves the stream open.
+ */
+final class IcsWriter implements Flushable, Closeable {
+
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final Writer out;
+
+    IcsWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /** Writes {@code name:value} with {@code value} used as is (dates, identifiers, keywords). */
+    IcsWriter line(String name, String value) throws IOException {
+        String line = name + ":" + value;
+        int octets = 0;
+        for (int i = 0; i < line.length(); ) {
+            int cp = line.codePointAt(i);
+            int size = utf8Length(cp);
+            // Continuation lines start with a space, which counts towards their 75 octets
+            if (octets + size > MAX_LINE_OCTETS) {
+                out.write("\r\n ");
+                octets = 1;
+            }
+            out.write(line, i, Character.charCount(cp));
+            octets += size;
+            i += Character.charCount(cp);
+        }
+        out.write("\r\n");
+        return this;
+    }
+
+    /** Writes {@code name:value} with {@code value} escaped as TEXT. */
+    IcsWriter text(String name, String value) throws IOException {
+        return line(name, escape(value));
+    }
+
+    static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> escaped.append('\\').append(c);
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> { }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+}
@@ -0,0 +1,228 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rihal.AppointmentScheduler.repository.IdempotencyRecordRepository;
+
+/**
+ * Replays the stored response of a request retried with the same {@code Idempotency-Key}.
+ *
+ * Successful responses are kept in a bounded in-memory LRU in front of the
+ * {@code idempotency_records} table, both expiring after the configured TTL. A replay
+ * returns the stored body without running the handler again, so no appointment or
+ * notification is written twice. Concurrent requests with the same key wait for the
+ * first one instead of racing it. Failed requests are not stored and may be retried; if
+ * the first one fails, one waiter takes its place and the others wait for that one.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final long IN_FLIGHT_WAIT_SECONDS = 30;
+
+    private record Stored(String scope, int statusCode, String body, LocalDateTime expiresAt) {}
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Map<String, Stored> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<Stored>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${idempotency.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Scope of a request: method and path, the caller, and a hash of the body. A key can
+     * only be replayed by the same caller for the same request; reusing it for another
+     * body or by another user is rejected instead of returning someone else's response.
+     */
+    public String scope(String request, String actor, Object body) {
+        String fingerprint;
+        try {
+            fingerprint = body == null ? "-" : DigestUtils.md5DigestAsHex(
+                    objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request body cannot be serialized", e);
+        }
+        return request + " by " + actor + " #" + fingerprint;
+    }
+
+    /**
+     * Runs {@code handler} once per key. Without a key the handler simply runs.
+     *
+     * @param key   value of the {@code Idempotency-Key} header, may be null
+     * @param scope the request the key belongs to, from {@link #scope}
+     */
+    public ResponseEntity<?> execute(String key, String scope, Supplier<ResponseEntity<?>> handler) {
+        if (key == null || key.isBlank()) {
+            return handler.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        while (true) {
+            Stored stored = lookup(key);
+            if (stored != null) {
+                return replay(stored, scope);
+            }
+
+            CompletableFuture<Stored> mine = new CompletableFuture<>();
+            CompletableFuture<Stored> running = inFlight.putIfAbsent(key, mine);
+            if (running == null) {
+                return run(key, scope, handler, mine);
+            }
+            stored = await(running);
+            if (stored != null) {
+                return replay(stored, scope);
+            }
+            // The running request failed and stored nothing; the first waiter back in
+            // takes its place, the others wait for that one
+        }
+    }
+
+    private ResponseEntity<?> run(String key, String scope, Supplier<ResponseEntity<?>> handler,
+                                  CompletableFuture<Stored> mine) {
+        Stored result = null;
+        try {
+            ResponseEntity<?> response = handler.get();
+            if (response.getStatusCode().is2xxSuccessful()) {
+                result = store(key, scope, response);
+            }
+            return response;
+        } finally {
+            // Removed before waking the waiters, so they retry against a free slot
+            inFlight.remove(key, mine);
+            mine.complete(result);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int removed = repository.deleteExpired(now);
+        synchronized (cache) {
+            cache.values().removeIf(s -> s.expiresAt().isBefore(now));
+        }
+        if (removed > 0) {
+            log.debug("Purged {} expired idempotency records", removed);
+        }
+    }
+
+    private Stored lookup(String key) {
+        LocalDateTime now = LocalDateTime.now();
+        Stored stored;
+        synchronized (cache) {
+            stored = cache.get(key);
+        }
+        if (stored == null) {
+            stored = repository.findById(key)
+                    .map(r -> new Stored(r.getScope(), r.getStatusCode(), r.getResponseBody(), r.getExpiresAt()))
+                    .orElse(null);
+            if (stored != null) {
+                remember(key, stored);
+            }
+        }
+        return stored != null && stored.expiresAt().isAfter(now) ? stored : null;
+    }
+
+    private Stored store(String key, String scope, ResponseEntity<?> response) {
+        String body;
+        try {
+            body = response.getBody() == null ? null : objectMapper.writeValueAsString(response.getBody());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize response for idempotency key {}", key, e);
+            return null;
+        }
+        Stored stored = new Stored(scope, response.getStatusCode().value(), body, LocalDateTime.now().plus(ttl));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.insert(key, scope, stored.statusCode(),
+                    stored.body(), LocalDateTime.now(), stored.expiresAt()));
+        } catch (DataIntegrityViolationException e) {
+            // Another node stored this key first; its response wins
+            log.debug("Idempotency key {} already stored", key);
+            Stored winner = repository.findById(key)
+                    .map(r -> new Stored(r.getScope(), r.getStatusCode(), r.getResponseBody(), r.getExpiresAt()))
+                    .orElse(stored);
+            remember(key, winner);
+            return winner;
+        }
+        remember(key, stored);
+        return stored;
+    }
+
+    private void remember(String key, Stored stored) {
+        synchronized (cache) {
+            cache.put(key, stored);
+        }
+    }
+
+    private static Stored await(CompletableFuture<Stored> running) {
+        try {
+            return running.get(IN_FLIGHT_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a request with the same " + HEADER, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("A request with the same " + HEADER + " is still in progress", e);
+        }
+    }
+
+    private static ResponseEntity<?> replay(Stored stored, String scope) {
+        if (!stored.scope().equals(scope)) {
+            throw new IllegalArgumentException(HEADER + " was already used for a different request");
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.statusCode())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.body() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(stored.body());
+    }
+}
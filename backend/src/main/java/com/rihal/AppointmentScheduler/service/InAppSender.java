@@ -0,0 +1,28 @@
+package com.rihal.AppointmentScheduler.service;
+
+import org.springframework.stereotype.Component;
+
+import com.rihal.AppointmentScheduler.model.NotificationLog.Channel;
+import com.rihal.AppointmentScheduler.model.User;
+
+/**
+ * In-app notifications are the IN_APP log entries themselves, read back through
+ * /api/notifications, so there is nothing to send.
+ */
+@Component
+public class InAppSender implements ChannelSender {
+
+    @Override
+    public Channel channel() {
+        return Channel.IN_APP;
+    }
+
+    @Override
+    public boolean canReach(User recipient) {
+        return true;
+    }
+
+    @Override
+    public void send(NotificationDispatcher.Notification notification, User recipient) {
+    }
+}
@@ -0,0 +1,202 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rihal.AppointmentScheduler.model.NotificationLog;
+import com.rihal.AppointmentScheduler.repository.NotificationLogRepository;
+
+/**
+ * Keeps {@code notification_logs} down to the last {@code hot-days} days.
+ *
+ * A nightly job moves older rows, oldest first, into gzip-compressed JSON-lines files
+ * rolled by month of {@code created_at}: every chunk becomes a new immutable file
+ * {@code notification-logs-YYYY-MM.<timestamp>.jsonl.gz}, written under a temporary
+ * name, forced to disk and renamed before its rows are deleted. A crash can therefore
+ * at worst archive a chunk twice, which {@link #find} ignores. Archived logs stay
+ * readable by recipient and month range.
+ *
+ * Only the holder of the {@code notification-archive} {@link ClusterLeases lease} runs
+ * the job; with several instances the archive directory must be shared storage.
+ */
+@Service
+public class NotificationArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationArchive.class);
+
+    static final String LEASE_GROUP = "notification-archive";
+    private static final String PREFIX = "notification-logs-";
+    private static final String SUFFIX = ".jsonl.gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final NotificationLogRepository notificationLogRepository;
+    private final ClusterLeases leases;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final int hotDays;
+    private final int batchSize;
+
+    public NotificationArchive(NotificationLogRepository notificationLogRepository,
+                               ClusterLeases leases,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${notifications.archive.dir:archive/notifications}") String directory,
+                               @Value("${notifications.retention.hot-days:30}") int hotDays,
+                               @Value("${notifications.retention.batch-size:5000}") int batchSize) {
+        this.notificationLogRepository = notificationLogRepository;
+        this.leases = leases;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Path.of(directory);
+        this.hotDays = hotDays;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /** Moves every log older than the hot window to the archive; returns how many. */
+    @Scheduled(cron = "${notifications.retention.cron:0 30 3 * * *}")
+    public synchronized int archiveOldLogs() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(hotDays).atStartOfDay();
+        int archived = 0;
+        try {
+            Files.createDirectories(directory);
+            deleteTempFiles();
+            // The lease is renewed per chunk, so a long run cannot outlive it unnoticed
+            while (leases.rebalance(LEASE_GROUP, 1).contains(0)) {
+                List<NotificationLog> chunk = notificationLogRepository.findByCreatedAtBeforeOrderByCreatedAtAsc(
+                        cutoff, PageRequest.of(0, batchSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                Map<YearMonth, List<NotificationLog>> byMonth = new TreeMap<>();
+                for (NotificationLog entry : chunk) {
+                    byMonth.computeIfAbsent(YearMonth.from(entry.getCreatedAt()), m -> new ArrayList<>()).add(entry);
+                }
+                for (Map.Entry<YearMonth, List<NotificationLog>> month : byMonth.entrySet()) {
+                    write(month.getKey(), month.getValue());
+                }
+                List<UUID> ids = chunk.stream().map(NotificationLog::getId).toList();
+                transactionTemplate.executeWithoutResult(s -> notificationLogRepository.deleteAllByIdInBatch(ids));
+                archived += chunk.size();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Archiving notification logs to " + directory + " failed", e);
+        }
+        if (archived > 0) {
+            log.info("Archived {} notification logs created before {} to {}", archived, cutoff, directory);
+        }
+        return archived;
+    }
+
+    /**
+     * Archived logs of a recipient created in {@code [from, to]} (whole months), oldest
+     * first. Reads and decompresses every archive file of those months.
+     */
+    public List<NotificationLog> find(UUID recipientUserId, YearMonth from, YearMonth to) {
+        Map<UUID, NotificationLog> found = new LinkedHashMap<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            for (Path file : files(month)) {
+                read(file, recipientUserId, found);
+            }
+        }
+        List<NotificationLog> logs = new ArrayList<>(found.values());
+        logs.sort(Comparator.comparing(NotificationLog::getCreatedAt));
+        return logs;
+    }
+
+    private void write(YearMonth month, List<NotificationLog> entries) throws IOException {
+        String name = PREFIX + month + "." + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8) + SUFFIX;
+        Path target = directory.resolve(name);
+        Path temp = directory.resolve(name + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+            for (NotificationLog entry : entries) {
+                writer.write(objectMapper.writeValueAsString(entry));
+                writer.write('\n');
+            }
+            writer.flush();
+            gzip.finish();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void read(Path file, UUID recipientUserId, Map<UUID, NotificationLog> found) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file), 64 * 1024), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                NotificationLog entry = objectMapper.readValue(line, NotificationLog.class);
+                if (recipientUserId.equals(entry.getRecipientUserId())) {
+                    found.putIfAbsent(entry.getId(), entry);
+                }
+            }
+        } catch (EOFException e) {
+            log.warn("Archive file {} is truncated; read what was complete", file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archive file " + file, e);
+        }
+    }
+
+    private List<Path> files(YearMonth month) {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + month + ".*" + SUFFIX)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list " + directory, e);
+        }
+        files.sort(Comparator.naturalOrder());
+        return files;
+    }
+
+    /** Leftovers of a run that died mid-write; their rows were never deleted. */
+    private void deleteTempFiles() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+            for (Path temp : stream) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
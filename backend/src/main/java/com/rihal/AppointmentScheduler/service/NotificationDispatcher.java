@@ -0,0 +1,217 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.rihal.AppointmentScheduler.model.NotificationLog.Channel;
+import com.rihal.AppointmentScheduler.model.User;
+import com.rihal.AppointmentScheduler.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fans each notification out to every channel the recipient has enabled.
+ *
+ * Channels are bulkheaded: each has its own fixed set of threads
+ * ({@code notifications.channels.<channel>.threads}) and its own bounded queue
+ * ({@code queue-capacity}), so a slow or stuck SMS gateway can only fill the SMS queue
+ * and never delays in-app or email notifications. A notification that finds its
+ * channel's queue full is not waited for; it is recorded as a failure of that channel.
+ * Every attempt ends in a SENT or FAILED notification log for its channel.
+ *
+ * Work starts once the caller's transaction commits, so rolled-back bookings notify
+ * nobody. Per channel, the queue depth is published as the gauge
+ * {@code notifications.channel.queue} and the time from dispatch to delivery as the
+ * timer {@code notifications.channel.latency} (tagged with the outcome).
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    /** One event for one recipient, with the parameters of its notification template. */
+    public record Notification(String eventType,
+                               UUID recipientUserId,
+                               UUID appointmentId,
+                               String correlationId,
+                               Object... params) {}
+
+    private final Map<Channel, ChannelSender> senders = new EnumMap<>(Channel.class);
+    private final Map<Channel, ThreadPoolExecutor> bulkheads = new EnumMap<>(Channel.class);
+    private final Map<Channel, Counter> rejected = new EnumMap<>(Channel.class);
+    private final NotificationService notificationService;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final Set<Channel> defaultChannels;
+    private final ExecutorService fanOut =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("notify-fanout-", 0).factory());
+
+    public NotificationDispatcher(List<ChannelSender> senders,
+                                  NotificationService notificationService,
+                                  UserRepository userRepository,
+                                  MeterRegistry meterRegistry,
+                                  Environment environment,
+                                  @Value("${notifications.channels.default:IN_APP,EMAIL}") String defaultChannels) {
+        this.notificationService = notificationService;
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.defaultChannels = parseChannels(defaultChannels);
+        for (ChannelSender sender : senders) {
+            Channel channel = sender.channel();
+            String prefix = "notifications.channels." + channel.name().toLowerCase().replace('_', '-') + ".";
+            int threads = Math.max(1, environment.getProperty(prefix + "threads", Integer.class, 4));
+            int capacity = Math.max(1, environment.getProperty(prefix + "queue-capacity", Integer.class, 1000));
+            ThreadPoolExecutor bulkhead = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacity),
+                    Thread.ofVirtual().name("notify-" + channel.name().toLowerCase() + "-", 0).factory(),
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.senders.put(channel, sender);
+            this.bulkheads.put(channel, bulkhead);
+            Gauge.builder("notifications.channel.queue", bulkhead, e -> e.getQueue().size())
+                    .tag("channel", channel.name())
+                    .description("Notifications waiting for a thread of their channel")
+                    .register(meterRegistry);
+            Gauge.builder("notifications.channel.active", bulkhead, ThreadPoolExecutor::getActiveCount)
+                    .tag("channel", channel.name())
+                    .register(meterRegistry);
+            rejected.put(channel, Counter.builder("notifications.channel.rejected")
+                    .tag("channel", channel.name())
+                    .description("Notifications dropped because their channel's queue was full")
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Sends the notification to the recipient's channels once the current transaction
+     * commits (at once without one). Without a recipient only IN_APP is used.
+     */
+    public void dispatch(String eventType, UUID recipientUserId, UUID appointmentId,
+                         String correlationId, Object... params) {
+        Notification notification = new Notification(eventType, recipientUserId, appointmentId, correlationId, params);
+        Runnable submit = () -> fanOut.execute(() -> route(notification));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit.run();
+                }
+            });
+        } else {
+            submit.run();
+        }
+    }
+
+    /** Notifications waiting in the channel's queue, or 0 if it has no sender. */
+    public int queueDepth(Channel channel) {
+        ThreadPoolExecutor bulkhead = bulkheads.get(channel);
+        return bulkhead == null ? 0 : bulkhead.getQueue().size();
+    }
+
+    private void route(Notification notification) {
+        User recipient = null;
+        try {
+            recipient = notification.recipientUserId() == null ? null
+                    : userRepository.findById(UserIds.toLong(notification.recipientUserId())).orElse(null);
+        } catch (RuntimeException e) {
+            log.warn("Could not load recipient {}, notifying in-app only", notification.recipientUserId(), e);
+        }
+        for (Channel channel : channelsOf(recipient)) {
+            ChannelSender sender = senders.get(channel);
+            if (sender != null && sender.canReach(recipient)) {
+                submit(channel, sender, notification, recipient);
+            }
+        }
+    }
+
+    private void submit(Channel channel, ChannelSender sender, Notification notification, User recipient) {
+        long dispatched = System.nanoTime();
+        try {
+            bulkheads.get(channel).execute(() -> deliver(channel, sender, notification, recipient, dispatched));
+        } catch (RejectedExecutionException e) {
+            rejected.get(channel).increment();
+            record(channel, notification, "Channel queue full", dispatched, false);
+        }
+    }
+
+    private void deliver(Channel channel, ChannelSender sender, Notification notification, User recipient, long dispatched) {
+        try {
+            sender.send(notification, recipient);
+            record(channel, notification, null, dispatched, true);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("{} notification {} to {} failed", channel, notification.eventType(), notification.recipientUserId(), e);
+            record(channel, notification, String.valueOf(e.getMessage()), dispatched, false);
+        }
+    }
+
+    private void record(Channel channel, Notification n, String error, long dispatched, boolean sent) {
+        Timer.builder("notifications.channel.latency")
+                .tag("channel", channel.name())
+                .tag("outcome", sent ? "sent" : "failed")
+                .register(meterRegistry)
+                .record(System.nanoTime() - dispatched, TimeUnit.NANOSECONDS);
+        if (sent) {
+            notificationService.logSent(n.eventType(), channel, n.recipientUserId(), n.appointmentId(),
+                    n.correlationId(), n.params());
+        } else {
+            notificationService.logFailure(n.eventType(), channel, n.recipientUserId(), n.appointmentId(),
+                    error, n.correlationId(), n.params());
+        }
+    }
+
+    private Set<Channel> channelsOf(User recipient) {
+        if (recipient == null) {
+            return EnumSet.of(Channel.IN_APP);
+        }
+        return recipient.getNotificationChannels() == null ? defaultChannels
+                : parseChannels(recipient.getNotificationChannels());
+    }
+
+    static Set<Channel> parseChannels(String channels) {
+        Set<Channel> parsed = EnumSet.noneOf(Channel.class);
+        Arrays.stream(channels.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .forEach(s -> parsed.add(Channel.valueOf(s.toUpperCase())));
+        return parsed;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        fanOut.shutdown();
+        fanOut.awaitTermination(5, TimeUnit.SECONDS);
+        for (ThreadPoolExecutor bulkhead : bulkheads.values()) {
+            bulkhead.shutdown();
+        }
+        for (ThreadPoolExecutor bulkhead : bulkheads.values()) {
+            if (!bulkhead.awaitTermination(10, TimeUnit.SECONDS)) {
+                bulkhead.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rihal.AppointmentScheduler.model.NotificationLog;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Write-behind queue for {@link NotificationLog} rows.
+ *
+ * Logs are queued once the caller's transaction commits (so a rolled-back booking
+ * leaves no log behind, as before) and a background writer inserts them in JDBC
+ * batches of up to {@code batch-size}, at the latest {@code flush-interval-ms} after the
+ * first one was queued. The queue is bounded: when it is full the caller either waits
+ * up to {@code offer-timeout-ms} and then writes its log itself ({@code BLOCK}), writes
+ * it itself at once ({@code WRITE_THROUGH}) or drops it ({@code DROP}).
+ *
+ * Queued logs are lost if the process dies before they are flushed; they are flushed on
+ * a normal shutdown. Set {@code notifications.write-behind.enabled=false} to write every
+ * log synchronously in the caller's transaction instead.
+ */
+@Component
+public class NotificationOutbox implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutbox.class);
+
+    public enum OverflowPolicy { BLOCK, WRITE_THROUGH, DROP }
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final OverflowPolicy overflowPolicy;
+    private final BlockingQueue<NotificationLog> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public NotificationOutbox(EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${notifications.write-behind.enabled:true}") boolean enabled,
+                              @Value("${notifications.write-behind.capacity:10000}") int capacity,
+                              @Value("${notifications.write-behind.batch-size:500}") int batchSize,
+                              @Value("${notifications.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+                              @Value("${notifications.write-behind.offer-timeout-ms:50}") long offerTimeoutMs,
+                              @Value("${notifications.write-behind.overflow:BLOCK}") OverflowPolicy overflowPolicy) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.overflowPolicy = overflowPolicy;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    /**
+     * Queues {@code entry} for the writer, after the current transaction commits if there
+     * is one. With write-behind disabled the entry is persisted right away instead.
+     */
+    public void add(NotificationLog entry) {
+        if (!enabled) {
+            // Joins the caller's transaction if there is one
+            transactionTemplate.executeWithoutResult(status -> entityManager.persist(entry));
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(entry);
+                }
+            });
+        } else {
+            offer(entry);
+        }
+    }
+
+    /** Logs waiting to be written. */
+    public int pending() {
+        return queue.size();
+    }
+
+    /** Logs dropped because the queue was full (overflow policy {@code DROP}). */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    private void offer(NotificationLog entry) {
+        if (!running) {
+            write(List.of(entry));
+            return;
+        }
+        try {
+            if (queue.offer(entry) || (overflowPolicy == OverflowPolicy.BLOCK
+                    && queue.offer(entry, offerTimeoutMs, TimeUnit.MILLISECONDS))) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            if (dropped.incrementAndGet() % 1000 == 1) {
+                log.warn("Notification log queue full, dropped {} logs so far", dropped.get());
+            }
+            return;
+        }
+        write(List.of(entry));
+    }
+
+    private void drainLoop() {
+        List<NotificationLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                NotificationLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Fill the batch until it is full or the first entry has waited long enough
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    NotificationLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            queue.drainTo(batch, batchSize - batch.size());
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<NotificationLog> batch) {
+        try {
+            insert(batch);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                log.error("Could not write notification log {}", batch.get(0).getEventType(), e);
+                return;
+            }
+            // One bad row must not lose the rest of the batch
+            log.warn("Batch of {} notification logs failed, writing them one by one", batch.size(), e);
+            for (NotificationLog entry : batch) {
+                entry.setId(null);
+                write(List.of(entry));
+            }
+        }
+    }
+
+    private void insert(List<NotificationLog> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            for (NotificationLog entry : batch) {
+                entityManager.persist(entry);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "notification-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        Thread current = writer;
+        // The writer notices within one flush interval and drains the queue before exiting
+        running = false;
+        if (current != null) {
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server and schedulers (default phase) so their last logs are flushed
+        return Integer.MIN_VALUE + 1000;
+    }
+}
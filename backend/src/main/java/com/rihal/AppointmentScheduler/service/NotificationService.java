@@ -1,68 +1,93 @@
 package com.rihal.AppointmentScheduler.service;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.rihal.AppointmentScheduler.model.NotificationLog;
 import com.rihal.AppointmentScheduler.model.NotificationLog.Channel;
 import com.rihal.AppointmentScheduler.model.NotificationLog.Status;
 import com.rihal.AppointmentScheduler.repository.NotificationLogRepository;
 
+/**
+ * Records sent and failed notifications. Logs are handed to the {@link NotificationOutbox}
+ * and written after the caller's transaction commits, so the returned log may not have
+ * been persisted yet. Subject and content come from the {@link NotificationTemplates}
+ * template named like the event type; only its parameters are stored.
+ */
 @Service
 public class NotificationService {
 
+	private final NotificationOutbox outbox;
+	private final NotificationTemplates templates;
 	private final NotificationLogRepository notificationLogRepository;
 
-	public NotificationService(NotificationLogRepository notificationLogRepository) {
+	public NotificationService(NotificationOutbox outbox,
+			NotificationTemplates templates,
+			NotificationLogRepository notificationLogRepository) {
+		this.outbox = outbox;
+		this.templates = templates;
 		this.notificationLogRepository = notificationLogRepository;
 	}
 
-	@Transactional
 	public NotificationLog logSent(String eventType,
 			Channel channel,
 			UUID recipientUserId,
 			UUID appointmentId,
-			String subject,
-			String content,
-			String correlationId) {
-		NotificationLog log = new NotificationLog();
-		log.setEventType(eventType);
-		log.setChannel(channel);
-		log.setRecipientUserId(recipientUserId);
-		log.setAppointmentId(appointmentId);
-		log.setSubject(subject);
-		log.setContent(content);
+			String correlationId,
+			Object... params) {
+		NotificationLog log = newLog(eventType, channel, recipientUserId, appointmentId, correlationId, params);
 		log.setStatus(Status.SENT);
-		log.setCorrelationId(correlationId);
-		log.setSentAt(LocalDateTime.now());
-		return notificationLogRepository.save(log);
+		outbox.add(log);
+		return log;
 	}
 
-	@Transactional
 	public NotificationLog logFailure(String eventType,
 			Channel channel,
 			UUID recipientUserId,
 			UUID appointmentId,
-			String subject,
-			String content,
 			String errorMessage,
-			String correlationId) {
+			String correlationId,
+			Object... params) {
+		NotificationLog log = newLog(eventType, channel, recipientUserId, appointmentId, correlationId, params);
+		log.setStatus(Status.FAILED);
+		log.setErrorMessage(errorMessage);
+		outbox.add(log);
+		return log;
+	}
+
+	public List<NotificationLog> forRecipient(UUID recipientUserId) {
+		return notificationLogRepository.findByRecipientUserIdOrderByCreatedAtDesc(recipientUserId);
+	}
+
+	public List<NotificationLog> forAppointment(UUID appointmentId) {
+		return notificationLogRepository.findByAppointmentIdOrderByCreatedAtDesc(appointmentId);
+	}
+
+	public NotificationTemplates.Rendered render(NotificationLog log) {
+		return templates.render(log);
+	}
+
+	private NotificationLog newLog(String eventType,
+			Channel channel,
+			UUID recipientUserId,
+			UUID appointmentId,
+			String correlationId,
+			Object[] params) {
+		if (!templates.exists(eventType)) {
+			throw new IllegalArgumentException("No notification template for " + eventType);
+		}
 		NotificationLog log = new NotificationLog();
 		log.setEventType(eventType);
 		log.setChannel(channel);
 		log.setRecipientUserId(recipientUserId);
 		log.setAppointmentId(appointmentId);
-		log.setSubject(subject);
-		log.setContent(content);
-		log.setStatus(Status.FAILED);
-		log.setErrorMessage(errorMessage);
+		log.setTemplateId(eventType);
+		log.setTemplateParams(NotificationTemplates.encode(params));
 		log.setCorrelationId(correlationId);
 		log.setSentAt(LocalDateTime.now());
-		return notificationLogRepository.save(log);
+		return log;
 	}
 }
-
-
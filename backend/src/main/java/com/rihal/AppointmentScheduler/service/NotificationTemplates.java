@@ -0,0 +1,194 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.stereotype.Component;
+
+import com.rihal.AppointmentScheduler.model.NotificationLog;
+
+/**
+ * Notification subjects and bodies from {@code notification-templates.properties}.
+ *
+ * Each template is split once at startup into literal pieces and parameter slots, so
+ * rendering is a single pass into a buffer of the exact final size. Notification logs
+ * store the template id and encoded parameters instead of the rendered text; rendered
+ * logs are kept in a bounded LRU cache for repeated reads.
+ */
+@Component
+public class NotificationTemplates {
+
+    private static final String TEMPLATE_FILE = "notification-templates.properties";
+    // Control characters that never appear in dates, times, ids or e-mail addresses
+    private static final char PARAM_SEPARATOR = '\u001F';
+    private static final char KEY_SEPARATOR = '\u001E';
+
+    public record Rendered(String subject, String body) {}
+
+    private record Template(Compiled subject, Compiled body) {}
+
+    private final Map<String, Template> templates = new HashMap<>();
+    private final Map<String, Rendered> cache;
+
+    public NotificationTemplates(@Value("${notifications.render-cache.size:10000}") int cacheSize) {
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Rendered> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        Properties source;
+        try {
+            source = PropertiesLoaderUtils.loadProperties(
+                    new EncodedResource(new ClassPathResource(TEMPLATE_FILE), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + TEMPLATE_FILE, e);
+        }
+        for (String key : source.stringPropertyNames()) {
+            if (!key.endsWith(".subject")) {
+                continue;
+            }
+            String id = key.substring(0, key.length() - ".subject".length());
+            String body = source.getProperty(id + ".body");
+            if (body == null) {
+                throw new IllegalStateException("Template " + id + " has a subject but no body");
+            }
+            templates.put(id, new Template(Compiled.of(source.getProperty(key)), Compiled.of(body)));
+        }
+    }
+
+    public boolean exists(String templateId) {
+        return templates.containsKey(templateId);
+    }
+
+    /** Renders a template with parameters as passed to {@code NotificationService.logSent}. */
+    public Rendered render(String templateId, Object... params) {
+        return render(templateId, toStrings(params));
+    }
+
+    private Rendered render(String templateId, String[] params) {
+        Template template = template(templateId);
+        return new Rendered(template.subject().render(params), template.body().render(params));
+    }
+
+    /** Subject and body of a stored log; logs written before templates keep their own text. */
+    public Rendered render(NotificationLog log) {
+        if (log.getTemplateId() == null) {
+            return new Rendered(log.getSubject(), log.getContent());
+        }
+        String params = log.getTemplateParams() == null ? "" : log.getTemplateParams();
+        String key = log.getTemplateId() + KEY_SEPARATOR + params;
+        synchronized (cache) {
+            Rendered cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Rendered rendered = render(log.getTemplateId(), decode(params));
+        synchronized (cache) {
+            cache.put(key, rendered);
+        }
+        return rendered;
+    }
+
+    /** Parameters in the form stored in {@code notification_logs.template_params}. */
+    public static String encode(Object[] params) {
+        return params.length == 0 ? null : String.join(String.valueOf(PARAM_SEPARATOR), toStrings(params));
+    }
+
+    private static String[] toStrings(Object[] params) {
+        String[] strings = new String[params.length];
+        for (int i = 0; i < params.length; i++) {
+            strings[i] = params[i] == null ? "" : params[i].toString();
+        }
+        return strings;
+    }
+
+    static String[] decode(String encoded) {
+        if (encoded.isEmpty()) {
+            return new String[0];
+        }
+        List<String> params = new ArrayList<>();
+        int from = 0;
+        for (int i = encoded.indexOf(PARAM_SEPARATOR); i >= 0; i = encoded.indexOf(PARAM_SEPARATOR, from)) {
+            params.add(encoded.substring(from, i));
+            from = i + 1;
+        }
+        params.add(encoded.substring(from));
+        return params.toArray(String[]::new);
+    }
+
+    private Template template(String templateId) {
+        Template template = templates.get(templateId);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown notification template: " + templateId);
+        }
+        return template;
+    }
+
+    /**
+     * A template as literal pieces with parameter slots between them:
+     * {@code literals[0] params[slots[0]] literals[1] ... literals[n]}.
+     */
+    static final class Compiled {
+
+        private final String[] literals;
+        private final int[] slots;
+        private final int literalLength;
+
+        private Compiled(String[] literals, int[] slots) {
+            this.literals = literals;
+            this.slots = slots;
+            int length = 0;
+            for (String literal : literals) {
+                length += literal.length();
+            }
+            this.literalLength = length;
+        }
+
+        static Compiled of(String text) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> slots = new ArrayList<>();
+            int from = 0;
+            int open;
+            while ((open = text.indexOf('{', from)) >= 0) {
+                int close = text.indexOf('}', open);
+                if (close < 0 || close == open + 1 || !text.substring(open + 1, close).chars().allMatch(Character::isDigit)) {
+                    throw new IllegalStateException("Bad placeholder in template text: " + text);
+                }
+                literals.add(text.substring(from, open));
+                slots.add(Integer.parseInt(text.substring(open + 1, close)));
+                from = close + 1;
+            }
+            literals.add(text.substring(from));
+            return new Compiled(literals.toArray(String[]::new), slots.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        String render(String[] params) {
+            int length = literalLength;
+            for (int slot : slots) {
+                length += param(params, slot).length();
+            }
+            StringBuilder out = new StringBuilder(length);
+            for (int i = 0; i < slots.length; i++) {
+                out.append(literals[i]).append(param(params, slots[i]));
+            }
+            return out.append(literals[slots.length]).toString();
+        }
+
+        private static String param(String[] params, int slot) {
+            return slot < params.length && params[slot] != null ? params[slot] : "";
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rihal.AppointmentScheduler.config.AppointmentConfig;
+
+/**
+ * Runs an appointment mutation in its own transaction and retries it when the
+ * {@code @Version} check fails, with capped exponential backoff and full jitter.
+ * Each attempt re-reads the entity, so business rules are re-evaluated against
+ * the state that won the race.
+ */
+@Component
+public class OptimisticRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final AppointmentConfig config;
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager, AppointmentConfig config) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = config;
+    }
+
+    public <T> T execute(Supplier<T> mutation) {
+        int maxAttempts = Math.max(1, config.getRetryMaxAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> mutation.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Optimistic lock conflict, retrying (attempt {}/{})", attempt, maxAttempts);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(config.getRetryMaxBackoffMs(),
+                config.getRetryInitialBackoffMs() << Math.min(attempt - 1, 20));
+        long sleep = ThreadLocalRandom.current().nextLong(cap + 1);
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying", e);
+        }
+    }
+}
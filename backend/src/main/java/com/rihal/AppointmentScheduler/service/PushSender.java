@@ -0,0 +1,44 @@
+package com.rihal.AppointmentScheduler.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.rihal.AppointmentScheduler.model.NotificationLog.Channel;
+import com.rihal.AppointmentScheduler.model.User;
+
+/**
+ * Push notifications. Devices are not registered anywhere yet, so with
+ * {@code notifications.channels.push.enabled} the rendered subject is written to the log.
+ */
+@Component
+public class PushSender implements ChannelSender {
+
+    private static final Logger log = LoggerFactory.getLogger(PushSender.class);
+
+    private final NotificationTemplates templates;
+    private final boolean enabled;
+
+    public PushSender(NotificationTemplates templates,
+                      @Value("${notifications.channels.push.enabled:false}") boolean enabled) {
+        this.templates = templates;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Channel channel() {
+        return Channel.PUSH;
+    }
+
+    @Override
+    public boolean canReach(User recipient) {
+        return enabled && recipient != null;
+    }
+
+    @Override
+    public void send(NotificationDispatcher.Notification notification, User recipient) {
+        NotificationTemplates.Rendered content = templates.render(notification.eventType(), notification.params());
+        log.info("Push to user {}: {}", recipient.getId(), content.subject());
+    }
+}
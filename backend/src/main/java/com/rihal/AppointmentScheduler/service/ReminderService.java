@@ -1,59 +1,336 @@
 package com.rihal.AppointmentScheduler.service;
 
 
+import com.rihal.AppointmentScheduler.event.AppointmentChangedEvent;
+import com.rihal.AppointmentScheduler.event.SeriesChangedEvent;
 import com.rihal.AppointmentScheduler.model.Appointment;
-import com.rihal.AppointmentScheduler.model.NotificationLog.Channel;
+import com.rihal.AppointmentScheduler.model.AppointmentStatus;
 import com.rihal.AppointmentScheduler.repository.AppointmentRepository;
+import com.rihal.AppointmentScheduler.repository.AppointmentSeriesRepository;
+import com.rihal.AppointmentScheduler.repository.ReminderClaimRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Sends each reminder {@code lead-hours} before its appointment starts.
+ *
+ * Reminders due within the next {@code horizon-hours} sit on a {@link TimingWheel} and
+ * fire within a tick of their due time. The wheel is loaded on startup and kept current
+ * from booking, cancellation and reschedule events; a periodic sweep of the same window
+ * only reconciles what the events missed (other instances, restarts, series changes).
+ * Before sending, a fired reminder re-reads its appointment and is dropped if it was
+ * cancelled or moved.
+ *
+ * With several instances running, reminders are split into {@code partitions} by
+ * appointment (or series) id and each instance sweeps only the partitions it holds a
+ * {@link ClusterLeases} lease for. An instance still schedules the reminders of its own
+ * bookings right away, whichever partition they fall in; a row in {@code reminder_claims},
+ * committed before the notification goes out, makes sure only one instance sends each
+ * reminder.
+ */
 @Service
 public class ReminderService {
+    private static final Logger log = LoggerFactory.getLogger(ReminderService.class);
+
+    static final String EVENT_TYPE = "APPOINTMENT_REMINDER";
+    static final String LEASE_GROUP = "reminders";
+
+    /** A stored appointment ({@code date} null) or one occurrence of a series. */
+    private record ReminderKey(UUID id, LocalDate date) {}
+
     private final AppointmentRepository appointmentRepository;
-    private final NotificationService notificationService;
+    private final AppointmentSeriesRepository seriesRepository;
+    private final ReminderClaimRepository claimRepository;
+    private final ClusterLeases leases;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationDispatcher notificationDispatcher;
+    private final SeriesOccurrences seriesOccurrences;
+    private final int pageSize;
+    private final Duration lead;
+    private final Duration horizon;
+    private final Duration lateGrace;
+    private final Duration claimRetention;
+    private final int partitions;
+    private volatile Set<Integer> owned = Set.of();
+    private final TimingWheel<ReminderKey> wheel;
+    private final ConcurrentHashMap<ReminderKey, TimingWheel.Timeout> scheduled = new ConcurrentHashMap<>();
+    // Sends run off the wheel's ticker so a slow database cannot delay the next tick
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "reminder-sender");
+        t.setDaemon(true);
+        return t;
+    });
 
     public ReminderService(AppointmentRepository appointmentRepository,
-                           NotificationService notificationService) {
+                           AppointmentSeriesRepository seriesRepository,
+                           ReminderClaimRepository claimRepository,
+                           ClusterLeases leases,
+                           PlatformTransactionManager transactionManager,
+                           NotificationDispatcher notificationDispatcher,
+                           SeriesOccurrences seriesOccurrences,
+                           @Value("${reminders.page-size:500}") int pageSize,
+                           @Value("${reminders.lead-hours:24}") long leadHours,
+                           @Value("${reminders.horizon-hours:48}") long horizonHours,
+                           @Value("${reminders.late-grace-minutes:60}") long lateGraceMinutes,
+                           @Value("${reminders.claim-retention-days:7}") long claimRetentionDays,
+                           @Value("${reminders.partitions:16}") int partitions,
+                           @Value("${reminders.wheel.tick-ms:1000}") long tickMs,
+                           @Value("${reminders.wheel.size:512}") int wheelSize) {
         this.appointmentRepository = appointmentRepository;
-        this.notificationService = notificationService;
+        this.seriesRepository = seriesRepository;
+        this.claimRepository = claimRepository;
+        this.leases = leases;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.notificationDispatcher = notificationDispatcher;
+        this.seriesOccurrences = seriesOccurrences;
+        this.pageSize = pageSize;
+        this.lead = Duration.ofHours(leadHours);
+        this.horizon = Duration.ofHours(horizonHours);
+        this.lateGrace = Duration.ofMinutes(lateGraceMinutes);
+        this.claimRetention = Duration.ofDays(claimRetentionDays);
+        this.partitions = Math.max(1, partitions);
+        this.wheel = new TimingWheel<>("reminder-wheel", tickMs, wheelSize,
+                key -> sender.execute(() -> fire(key)));
 }
-@Scheduled(fixedRate = 60 * 60 * 1000) // every hour
-    public void sendReminders() {
+@EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebalance();
+    }
+
+    /**
+     * Renews this instance's partition leases. Reminders of partitions taken over are
+     * loaded at once; those of partitions handed to another instance leave the wheel.
+     */
+    @Scheduled(fixedDelayString = "${cluster.lease.renew-interval-ms:10000}",
+               initialDelayString = "${cluster.lease.renew-interval-ms:10000}")
+    public synchronized void rebalance() {
+        Set<Integer> held = leases.rebalance(LEASE_GROUP, partitions);
+        Set<Integer> gained = new HashSet<>(held);
+        gained.removeAll(owned);
+        Set<Integer> lost = new HashSet<>(owned);
+        lost.removeAll(held);
+        owned = held;
+        if (!lost.isEmpty()) {
+            scheduled.entrySet().removeIf(e -> lost.contains(partitionOf(e.getKey().id()))
+                    && (e.getValue().cancel() || true));
+        }
+        if (!gained.isEmpty() || !lost.isEmpty()) {
+            log.info("🔔 Reminder partitions of {}: {} (+{} -{})", leases.nodeId(), held, gained, lost);
+        }
+        if (!gained.isEmpty()) {
+            reconcile();
+        }
+    }
+
+    /** Partitions this instance currently sweeps. */
+    public Set<Integer> ownedPartitions() {
+        return owned;
+    }
+
+    /**
+     * Puts every reminder due within the horizon on the wheel that is not there yet.
+     * Reminders missed by up to {@code late-grace-minutes} (e.g. during a restart) are
+     * sent right away.
+     */
+    @Scheduled(fixedDelayString = "${reminders.reconcile-interval-ms:3600000}",
+               initialDelayString = "${reminders.reconcile-interval-ms:3600000}")
+    public synchronized void reconcile() {
+        Set<Integer> partitions = owned;
+        if (partitions.isEmpty()) {
+            return;
+        }
         LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = now.plus(lead).minus(lateGrace);
+        LocalDateTime to = now.plus(horizon);
 
-        // Load all appointments
-        List<Appointment> appointments = appointmentRepository.findAll();
+        // Only BOOKED appointments in the window are read, a page at a time
+        int added = 0;
+        Pageable page = PageRequest.of(0, pageSize);
+        Slice<Appointment> slice;
+        do {
+            slice = appointmentRepository.findBookedStartingBetween(
+                    from.toLocalDate(), from.toLocalTime(), to.toLocalDate(), to.toLocalTime(), page);
+            for (Appointment appt : slice) {
+                if (partitions.contains(partitionOf(appt.getId()))
+                        && scheduleIfAbsent(new ReminderKey(appt.getId(), null), appt, now)) {
+                    added++;
+                }
+            }
+            page = slice.nextPageable();
+        } while (slice.hasNext());
 
-        for (Appointment appt : appointments) {
-            if (appt.getStatus() != Appointment.Status.BOOKED) {
-                continue; // skip cancelled
+        // Recurring series occurrences are not stored; expand the ones in the window
+        for (Appointment occurrence : seriesOccurrences.expandAll(from.toLocalDate(), to.toLocalDate())) {
+            if (partitions.contains(partitionOf(occurrence.getSeriesId()))
+                    && scheduleIfAbsent(new ReminderKey(occurrence.getSeriesId(), occurrence.getDate()), occurrence, now)) {
+                added++;
             }
+        }
 
-            LocalDateTime appointmentTime = LocalDateTime.of(appt.getDate(), appt.getStartTime());
+        if (added > 0) {
+            log.info("🔔 Scheduled {} reminders for appointments starting {} - {} ({} pending)",
+                    added, from, to, wheel.size());
+        }
+        if (partitions.contains(0)) {
+            transactionTemplate.execute(s -> claimRepository.deleteClaimedBefore(now.minus(claimRetention)));
+        }
+    }
 
-            long hoursUntil = java.time.Duration.between(now, appointmentTime).toHours();
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (event.kind() == AppointmentChangedEvent.Kind.CANCELLED) {
+            cancel(new ReminderKey(event.appointmentId(), null));
+            if (event.seriesId() != null) {
+                // Cancelling one occurrence of a series stores a CANCELLED exception row
+                cancel(new ReminderKey(event.seriesId(), event.date()));
+            }
+            return;
+        }
+        ReminderKey key = new ReminderKey(event.appointmentId(), null);
+        cancel(key);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = LocalDateTime.of(event.date(), event.startTime());
+        if (start.isBefore(now.plus(horizon))) {
+            schedule(key, start, now);
+        }
+    }
 
-            if (hoursUntil == 24) {
-                String subject = "Appointment Reminder";
-                String content = "Reminder: You have an upcoming appointment  " +
-                        appt.getDate() + " at " + appt.getStartTime() + ".";
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeriesChanged(SeriesChangedEvent event) {
+        scheduled.entrySet().removeIf(e -> event.seriesId().equals(e.getKey().id())
+                && e.getKey().date() != null
+                && (e.getValue().cancel() || true));
+        seriesRepository.findById(event.seriesId()).ifPresent(series -> {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDate from = now.plus(lead).minus(lateGrace).toLocalDate();
+            LocalDate to = now.plus(horizon).toLocalDate();
+            for (Appointment occurrence : seriesOccurrences.expand(List.of(series), from, to)) {
+                scheduleIfAbsent(new ReminderKey(series.getId(), occurrence.getDate()), occurrence, now);
+            }
+        });
+    }
 
-                notificationService.logSent(
-                        "APPOINTMENT_REMINDER",
-                        Channel.IN_APP,  // or EMAIL later
-                        appt.getCustomerId(),
-                        appt.getId(),
-                        subject,
-                        content,
-                        null
-                );
+    /** Number of reminders waiting on the wheel. */
+    public int pending() {
+        return wheel.size();
+    }
 
-                System.out.println("🔔 Reminder was sent for appointment " + appt.getId());
-            }
+    @PreDestroy
+    public void shutdown() {
+        wheel.close();
+        sender.shutdownNow();
+        leases.releaseAll(LEASE_GROUP);
+    }
+
+    private boolean scheduleIfAbsent(ReminderKey key, Appointment appt, LocalDateTime now) {
+        if (scheduled.containsKey(key)) {
+            return false;
         }
+        return schedule(key, LocalDateTime.of(appt.getDate(), appt.getStartTime()), now);
+    }
+
+    private boolean schedule(ReminderKey key, LocalDateTime start, LocalDateTime now) {
+        LocalDateTime due = start.minus(lead);
+        if (due.isBefore(now.minus(lateGrace)) || !start.isAfter(now)) {
+            return false;
+        }
+        long delayMs = Math.max(0, Duration.between(now, due).toMillis());
+        TimingWheel.Timeout previous = scheduled.put(key, wheel.schedule(key, delayMs));
+        if (previous != null) {
+            previous.cancel();
+        }
+        return true;
+    }
+
+    private void cancel(ReminderKey key) {
+        TimingWheel.Timeout timeout = scheduled.remove(key);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private void fire(ReminderKey key) {
+        scheduled.remove(key);
+        try {
+            Optional<Appointment> current = key.date() == null ? currentAppointment(key) : currentOccurrence(key);
+            current.ifPresent(appt -> transactionTemplate.executeWithoutResult(s -> {
+                claimRepository.insert(claimKey(key), leases.nodeId(), LocalDateTime.now());
+                remind(appt);
+            }));
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Reminder {} was already sent", key);
+        } catch (RuntimeException ex) {
+            // The next reconcile puts it back on the wheel while it is still within the grace period
+            log.warn("Reminder for {} failed", key, ex);
+        }
+    }
+
+    private Optional<Appointment> currentAppointment(ReminderKey key) {
+        return appointmentRepository.findById(key.id())
+                .filter(a -> a.getStatus() == AppointmentStatus.BOOKED)
+                .filter(this::isDue);
     }
-   }
 
+    private Optional<Appointment> currentOccurrence(ReminderKey key) {
+        return seriesRepository.findById(key.id())
+                .filter(s -> s.occursOn(key.date()))
+                .flatMap(s -> seriesOccurrences.expand(List.of(s), key.date(), key.date()).stream().findFirst())
+                .filter(this::isDue);
+    }
+
+    /** False if the appointment moved since it was scheduled; its new time is scheduled separately. */
+    private boolean isDue(Appointment appt) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime due = LocalDateTime.of(appt.getDate(), appt.getStartTime()).minus(lead);
+        return !due.isAfter(now.plusMinutes(1)) && !due.isBefore(now.minus(lateGrace));
+    }
+
+    private int partitionOf(UUID id) {
+        return Math.floorMod(id.hashCode(), partitions);
+    }
+
+    private static String claimKey(ReminderKey key) {
+        return key.date() == null ? key.id().toString() : key.id() + ":" + key.date();
+    }
+
+    private static String correlationId(Appointment occurrence) {
+        return occurrence.getSeriesId() + ":" + occurrence.getDate();
+    }
+
+    private void remind(Appointment appt) {
+        String correlationId = appt.getSeriesId() == null ? null : correlationId(appt);
+
+        notificationDispatcher.dispatch(
+                EVENT_TYPE,
+                appt.getCustomerId(),
+                appt.getId(),
+                correlationId,
+                appt.getDate(), appt.getStartTime()
+        );
+    }
+   }
@@ -0,0 +1,233 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.rihal.AppointmentScheduler.model.Appointment;
+import com.rihal.AppointmentScheduler.model.AppointmentSeries;
+import com.rihal.AppointmentScheduler.model.AppointmentStatus;
+import com.rihal.AppointmentScheduler.repository.AppointmentRepository;
+import com.rihal.AppointmentScheduler.repository.AppointmentSeriesRepository;
+
+/**
+ * Lazily expands recurring series into occurrences over a queried window.
+ *
+ * Expanded occurrences are transient {@link Appointment}s (no id, status BOOKED, with
+ * {@code seriesId} set). Dates that have an exception row are skipped here; the row
+ * itself is a regular appointment and is read with the other appointments.
+ */
+@Component
+public class SeriesOccurrences {
+
+    public static final Comparator<Appointment> BY_DATE_AND_TIME =
+            Comparator.comparing(Appointment::getDate).thenComparing(Appointment::getStartTime);
+
+    private record Occurrence(UUID seriesId, LocalDate date) {}
+
+    private final AppointmentSeriesRepository seriesRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    public SeriesOccurrences(AppointmentSeriesRepository seriesRepository,
+                             AppointmentRepository appointmentRepository) {
+        this.seriesRepository = seriesRepository;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    /** Occurrences of every active series of a provider in {@code [from, to]}, in date order. */
+    public List<Appointment> expand(UUID providerId, LocalDate from, LocalDate to) {
+        return expand(seriesRepository.findActiveInRange(providerId, from, to), from, to);
+    }
+
+    /** Same for many providers; providers without occurrences are absent from the map. */
+    public Map<UUID, List<Appointment>> expand(Collection<UUID> providerIds, LocalDate from, LocalDate to) {
+        Map<UUID, List<Appointment>> byProvider = new HashMap<>();
+        if (providerIds.isEmpty()) {
+            return byProvider;
+        }
+        for (Appointment a : expand(seriesRepository.findActiveInRange(providerIds, from, to), from, to)) {
+            byProvider.computeIfAbsent(a.getProviderId(), k -> new ArrayList<>()).add(a);
+        }
+        return byProvider;
+    }
+
+    /** Occurrences of every active series of every provider in {@code [from, to]}, in date order. */
+    public List<Appointment> expandAll(LocalDate from, LocalDate to) {
+        return expand(seriesRepository.findActiveInRange(from, to), from, to);
+    }
+
+    /**
+     * {@code stored} plus the series occurrences of the same provider and window, in date
+     * and time order. {@code stored} must hold every appointment of the window (exception
+     * rows included); status filtering is left to the caller.
+     */
+    public List<Appointment> merge(List<Appointment> stored, UUID providerId, LocalDate from, LocalDate to) {
+        List<Appointment> occurrences = expand(providerId, from, to);
+        if (occurrences.isEmpty()) {
+            return stored;
+        }
+        List<Appointment> all = new ArrayList<>(stored.size() + occurrences.size());
+        all.addAll(stored);
+        all.addAll(occurrences);
+        all.sort(BY_DATE_AND_TIME);
+        return all;
+    }
+
+    /**
+     * Occurrences of every active series of a provider in {@code [from, to]}, in date and
+     * time order, expanded {@code chunkDays} at a time as the iterator advances, so a long
+     * window never has more than one chunk of occurrences in memory.
+     */
+    public Iterator<Appointment> iterate(UUID providerId, LocalDate from, LocalDate to, int chunkDays) {
+        return iterate(seriesRepository.findActiveInRange(providerId, from, to), from, to, chunkDays);
+    }
+
+    /** Same as {@link #iterate(UUID, LocalDate, LocalDate, int)} for the series a customer is booked on. */
+    public Iterator<Appointment> iterateForCustomer(UUID customerId, LocalDate from, LocalDate to, int chunkDays) {
+        return iterate(seriesRepository.findActiveInRangeForCustomer(customerId, from, to), from, to, chunkDays);
+    }
+
+    /**
+     * Merges two iterators that are each in date and time order into one, without
+     * buffering either; on ties {@code stored} comes first.
+     */
+    public static Iterator<Appointment> interleave(Iterator<Appointment> stored, Iterator<Appointment> occurrences) {
+        return new Iterator<>() {
+            private Appointment s = stored.hasNext() ? stored.next() : null;
+            private Appointment o = occurrences.hasNext() ? occurrences.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return s != null || o != null;
+            }
+
+            @Override
+            public Appointment next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Appointment a;
+                if (o == null || (s != null && BY_DATE_AND_TIME.compare(s, o) <= 0)) {
+                    a = s;
+                    s = stored.hasNext() ? stored.next() : null;
+                } else {
+                    a = o;
+                    o = occurrences.hasNext() ? occurrences.next() : null;
+                }
+                return a;
+            }
+        };
+    }
+
+    private Iterator<Appointment> iterate(List<AppointmentSeries> series, LocalDate from, LocalDate to, int chunkDays) {
+        return new Iterator<>() {
+            private LocalDate next = from;
+            private Iterator<Appointment> chunk = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!chunk.hasNext() && !series.isEmpty() && !next.isAfter(to)) {
+                    LocalDate end = next.plusDays(chunkDays - 1L).isAfter(to) ? to : next.plusDays(chunkDays - 1L);
+                    chunk = expand(series, next, end).iterator();
+                    next = end.plusDays(1);
+                }
+                return chunk.hasNext();
+            }
+
+            @Override
+            public Appointment next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.next();
+            }
+        };
+    }
+
+    /**
+     * Number of occurrences per date of every active series of a provider in
+     * {@code [from, to]}, without building them; dates without occurrences are absent.
+     */
+    public NavigableMap<LocalDate, Long> countByDate(UUID providerId, LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, Long> counts = new TreeMap<>();
+        List<AppointmentSeries> series = seriesRepository.findActiveInRange(providerId, from, to);
+        if (series.isEmpty()) {
+            return counts;
+        }
+        Set<Occurrence> overridden = overridden(series, from, to);
+        for (AppointmentSeries s : series) {
+            for (LocalDate date : s.occurrences(from, to)) {
+                if (!overridden.contains(new Occurrence(s.getId(), date))) {
+                    counts.merge(date, 1L, Long::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /** True if an occurrence of an active series of the provider overlaps {@code [start, end)} on {@code date}. */
+    public boolean overlaps(UUID providerId, LocalDate date, LocalTime start, LocalTime end) {
+        for (Appointment a : expand(seriesRepository.findActiveOn(providerId, date, date.getDayOfWeek()), date, date)) {
+            if (start.isBefore(a.getEndTime()) && a.getStartTime().isBefore(end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    List<Appointment> expand(List<AppointmentSeries> series, LocalDate from, LocalDate to) {
+        if (series.isEmpty()) {
+            return List.of();
+        }
+        Set<Occurrence> overridden = overridden(series, from, to);
+        List<Appointment> occurrences = new ArrayList<>();
+        for (AppointmentSeries s : series) {
+            for (LocalDate date : s.occurrences(from, to)) {
+                if (!overridden.contains(new Occurrence(s.getId(), date))) {
+                    occurrences.add(occurrence(s, date));
+                }
+            }
+        }
+        occurrences.sort(BY_DATE_AND_TIME);
+        return occurrences;
+    }
+
+    /** Occurrences replaced by an exception row (moved or cancelled) within the window. */
+    private Set<Occurrence> overridden(List<AppointmentSeries> series, LocalDate from, LocalDate to) {
+        Set<Occurrence> overridden = new HashSet<>();
+        for (Appointment a : appointmentRepository.findBySeriesIdInAndOriginalDateBetween(
+                series.stream().map(AppointmentSeries::getId).toList(), from, to)) {
+            overridden.add(new Occurrence(a.getSeriesId(), a.getOriginalDate()));
+        }
+        return overridden;
+    }
+
+    static Appointment occurrence(AppointmentSeries s, LocalDate date) {
+        Appointment a = new Appointment();
+        a.setSeriesId(s.getId());
+        a.setCustomerId(s.getCustomerId());
+        a.setProviderId(s.getProviderId());
+        a.setDate(date);
+        a.setOriginalDate(date);
+        a.setStartTime(s.getStartTime());
+        a.setEndTime(s.getEndTime());
+        a.setStatus(AppointmentStatus.BOOKED);
+        a.setNotes(s.getNotes());
+        return a;
+    }
+}
@@ -0,0 +1,141 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.time.LocalTime;
+
+/**
+ * Slot arithmetic on minute-of-day ints.
+ *
+ * A day is a 1440-bit mask packed into a long[] where a set bit means the minute is
+ * unavailable (break, partial holiday, booking, ...). Intervals are half-open
+ * {@code [from, to)} minute ranges. Slots are aligned to the opening minute and are
+ * {@code duration} minutes long; a slot is free when none of its minutes is set.
+ */
+public final class SlotEngine {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    static final int WORDS = (MINUTES_PER_DAY + 63) >>> 6;
+
+    private SlotEngine() {}
+
+    public static long[] newMask() {
+        return new long[WORDS];
+    }
+
+    public static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    public static LocalTime toTime(int minute) {
+        return LocalTime.of(minute / 60, minute % 60);
+    }
+
+    /** Sets every minute of {@code [from, to)}, clamped to the day. */
+    public static void mark(long[] mask, int from, int to) {
+        apply(mask, from, to, true);
+    }
+
+    /** Clears every minute of {@code [from, to)}, clamped to the day. */
+    public static void clear(long[] mask, int from, int to) {
+        apply(mask, from, to, false);
+    }
+
+    /** True if no minute of {@code [from, to)} is set. */
+    public static boolean isClear(long[] mask, int from, int to) {
+        return nextSet(mask, from, to) < 0;
+    }
+
+    /**
+     * Collects the free slot starts of {@code [open, close)} into {@code out} in one pass
+     * over the mask and returns how many were written. When a candidate slot hits a busy
+     * minute the sweep jumps past the whole busy run and re-aligns to the slot grid, so
+     * long breaks and bookings are skipped in O(words) rather than slot by slot.
+     */
+    public static int freeStarts(long[] busy, int open, int close, int duration, int[] out) {
+        if (duration <= 0) {
+            return 0;
+        }
+        int count = 0;
+        int t = open;
+        while (t + duration <= close && count < out.length) {
+            int hit = nextSet(busy, t, t + duration);
+            if (hit < 0) {
+                out[count++] = t;
+                t += duration;
+                continue;
+            }
+            int free = nextClear(busy, hit + 1, close);
+            if (free < 0) {
+                break;
+            }
+            t = open + ceilDiv(free - open, duration) * duration;
+        }
+        return count;
+    }
+
+    /** Upper bound on the number of slots {@link #freeStarts} can return for a window. */
+    public static int maxSlots(int open, int close, int duration) {
+        return duration <= 0 || close <= open ? 0 : (close - open) / duration;
+    }
+
+    /** First set minute in {@code [from, to)}, or -1. */
+    static int nextSet(long[] mask, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int i = from >>> 6;
+        long word = mask[i] & (-1L << from);
+        int last = (to - 1) >>> 6;
+        while (true) {
+            if (word != 0) {
+                int bit = (i << 6) + Long.numberOfTrailingZeros(word);
+                return bit < to ? bit : -1;
+            }
+            if (++i > last) {
+                return -1;
+            }
+            word = mask[i];
+        }
+    }
+
+    /** First clear minute in {@code [from, to)}, or -1. */
+    static int nextClear(long[] mask, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int i = from >>> 6;
+        long word = ~mask[i] & (-1L << from);
+        int last = (to - 1) >>> 6;
+        while (true) {
+            if (word != 0) {
+                int bit = (i << 6) + Long.numberOfTrailingZeros(word);
+                return bit < to ? bit : -1;
+            }
+            if (++i > last) {
+                return -1;
+            }
+            word = ~mask[i];
+        }
+    }
+
+    private static void apply(long[] mask, int from, int to, boolean value) {
+        from = Math.max(from, 0);
+        to = Math.min(to, MINUTES_PER_DAY);
+        if (from >= to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        for (int i = first; i <= last; i++) {
+            long bits = -1L;
+            if (i == first) bits &= firstMask;
+            if (i == last) bits &= lastMask;
+            mask[i] = value ? mask[i] | bits : mask[i] & ~bits;
+        }
+    }
+
+    private static int ceilDiv(int x, int y) {
+        return (x + y - 1) / y;
+    }
+}
@@ -0,0 +1,153 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.rihal.AppointmentScheduler.event.HoldEndedEvent;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Short-lived reservations of a slot between picking it and confirming the booking.
+ *
+ * Holds live only in memory: the held minutes are marked in the {@link SlotIndex} so the
+ * slot disappears from listings, and a {@link TimingWheel} releases them when the hold
+ * is neither confirmed nor released within the TTL. Callers take the provider-day
+ * {@link BookingLocks} stripe before adding or taking a hold. A {@link HoldEndedEvent}
+ * is published when a hold expires or is released (and by the booking that confirms it).
+ * A customer may hold at most {@code holds.max-per-customer} slots at a time; slots
+ * offered from the waitlist are not counted against that.
+ */
+@Component
+public class SlotHolds {
+
+    public record Hold(UUID id, UUID customerId, UUID providerId, LocalDate date,
+                       LocalTime startTime, LocalTime endTime, LocalDateTime expiresAt) {
+
+        /** The event for this hold ending; {@code appointmentId} is null unless it was confirmed. */
+        public HoldEndedEvent ended(UUID appointmentId) {
+            return new HoldEndedEvent(id, customerId, providerId, date, startTime, endTime, appointmentId);
+        }
+    }
+
+    private record Active(Hold hold, TimingWheel.Timeout timeout, boolean counted) {}
+
+    private final SlotIndex slotIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long ttlMs;
+    private final int maxPerCustomer;
+    private final ConcurrentHashMap<UUID, Active> active = new ConcurrentHashMap<>();
+    // Customer id -> number of active holds; absent means none
+    private final ConcurrentHashMap<UUID, Integer> perCustomer = new ConcurrentHashMap<>();
+    private final TimingWheel<UUID> wheel;
+
+    public SlotHolds(SlotIndex slotIndex,
+                     ApplicationEventPublisher eventPublisher,
+                     @Value("${holds.ttl-seconds:300}") long ttlSeconds,
+                     @Value("${holds.max-per-customer:3}") int maxPerCustomer,
+                     @Value("${holds.wheel.tick-ms:1000}") long tickMs,
+                     @Value("${holds.wheel.size:512}") int wheelSize) {
+        this.slotIndex = slotIndex;
+        this.eventPublisher = eventPublisher;
+        this.ttlMs = ttlSeconds * 1000;
+        this.maxPerCustomer = maxPerCustomer;
+        this.wheel = new TimingWheel<>("slot-hold-expiry", tickMs, wheelSize, this::expire);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        wheel.close();
+    }
+
+    /** Like {@link #add}, but returns null if the customer already holds their maximum. */
+    public Hold addWithinLimit(UUID customerId, UUID providerId, LocalDate date, LocalTime start, LocalTime end) {
+        if (perCustomer.merge(customerId, 1, Integer::sum) > maxPerCustomer) {
+            forget(customerId);
+            return null;
+        }
+        return place(customerId, providerId, date, start, end, true);
+    }
+
+    public Hold add(UUID customerId, UUID providerId, LocalDate date, LocalTime start, LocalTime end) {
+        return place(customerId, providerId, date, start, end, false);
+    }
+
+    public int maxPerCustomer() {
+        return maxPerCustomer;
+    }
+
+    private Hold place(UUID customerId, UUID providerId, LocalDate date, LocalTime start, LocalTime end,
+                       boolean counted) {
+        Hold hold = new Hold(UUID.randomUUID(), customerId, providerId, date, start, end,
+                LocalDateTime.now().plusNanos(ttlMs * 1_000_000));
+        slotIndex.hold(providerId, date, SlotEngine.toMinute(start), SlotEngine.toMinute(end));
+        active.put(hold.id(), new Active(hold, wheel.schedule(hold.id(), ttlMs), counted));
+        return hold;
+    }
+
+    public Hold get(UUID holdId) {
+        Active a = active.get(holdId);
+        return a == null ? null : a.hold();
+    }
+
+    /**
+     * Removes a hold and stops its expiry, but keeps its minutes marked so the slot stays
+     * hidden until the caller has booked it; {@link #unmark} then lifts the hold marks.
+     * Returns null if the hold expired or was already taken.
+     */
+    public Hold take(UUID holdId) {
+        Active a = active.remove(holdId);
+        if (a == null) {
+            return null;
+        }
+        a.timeout().cancel();
+        forget(a);
+        return a.hold();
+    }
+
+    /** Gives a hold up before it expires; false if it already expired or was taken. */
+    public boolean release(UUID holdId) {
+        Hold hold = take(holdId);
+        if (hold == null) {
+            return false;
+        }
+        unmark(hold);
+        eventPublisher.publishEvent(hold.ended(null));
+        return true;
+    }
+
+    public void unmark(Hold hold) {
+        slotIndex.release(hold.providerId(), hold.date(),
+                SlotEngine.toMinute(hold.startTime()), SlotEngine.toMinute(hold.endTime()));
+    }
+
+    public int size() {
+        return active.size();
+    }
+
+    private void expire(UUID holdId) {
+        Active a = active.remove(holdId);
+        if (a != null) {
+            forget(a);
+            unmark(a.hold());
+            eventPublisher.publishEvent(a.hold().ended(null));
+        }
+    }
+
+    private void forget(Active a) {
+        if (a.counted()) {
+            forget(a.hold().customerId());
+        }
+    }
+
+    private void forget(UUID customerId) {
+        perCustomer.computeIfPresent(customerId, (k, n) -> n == 1 ? null : n - 1);
+    }
+}
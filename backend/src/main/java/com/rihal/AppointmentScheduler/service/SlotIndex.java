@@ -0,0 +1,283 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.rihal.AppointmentScheduler.event.AppointmentChangedEvent;
+
+/**
+ * In-memory index of taken minutes per provider and day.
+ *
+ * Each day is a set of {@link SlotEngine} minute masks. A day is loaded from the
+ * database the first time it is asked for and afterwards kept current from
+ * {@link AppointmentChangedEvent}s, so repeated slot lookups never touch the database.
+ * Short-lived slot holds are tracked here too, independently of the cached days, so a
+ * held slot stays hidden even if its day is evicted and reloaded.
+ *
+ * Days are loaded outside the map's locks, so a slow query never blocks lookups or
+ * updates of other days. Every change first bumps a stamp shared by a stripe of days; a
+ * load is only cached if its stripe did not change while it ran, otherwise it is used
+ * once and the next lookup loads again.
+ */
+@Component
+public class SlotIndex {
+
+    private static final int STRIPES = 64;
+
+    private record Key(UUID providerId, LocalDate date) {}
+
+    private final ConcurrentHashMap<Key, Day> days = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Key, List<int[]>> holds = new ConcurrentHashMap<>();
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+    private final int maxDays;
+
+    public SlotIndex(@Value("${slots.index.max-days:50000}") int maxDays) {
+        this.maxDays = maxDays;
+    }
+
+    /**
+     * Returns the indexed day, running {@code loader} if it is not cached yet. Concurrent
+     * first lookups of a day may each run the loader; the first result is kept.
+     */
+    public Day day(UUID providerId, LocalDate date, Supplier<Day> loader) {
+        Key key = new Key(providerId, date);
+        Day day = days.get(key);
+        if (day != null) {
+            return day;
+        }
+        if (days.size() >= maxDays) {
+            evictBefore(LocalDate.now());
+            if (days.size() >= maxDays) {
+                evictSome(Math.max(1, maxDays / 10));
+            }
+        }
+        long stamp = stamps.get(stripe(key));
+        Day loaded = loader.get();
+        applyHolds(providerId, date, loaded);
+        // Changes bump the stamp before updating the map, so a change this load may have
+        // missed either shows in the stamp here or is applied after the day is cached
+        Day cached = days.compute(key, (k, existing) ->
+                existing != null || stamps.get(stripe(k)) != stamp ? existing : loaded);
+        return cached != null ? cached : loaded;
+    }
+
+    /** Hides {@code [from, to)} from listings until {@link #release} is called. */
+    public void hold(UUID providerId, LocalDate date, int from, int to) {
+        Key key = changing(providerId, date);
+        holds.compute(key, (k, list) -> {
+            List<int[]> updated = list == null ? new ArrayList<>(1) : new ArrayList<>(list);
+            updated.add(new int[] {from, to});
+            return updated;
+        });
+        days.computeIfPresent(key, (k, day) -> {
+            day.hold(from, to);
+            return day;
+        });
+    }
+
+    public void release(UUID providerId, LocalDate date, int from, int to) {
+        Key key = changing(providerId, date);
+        holds.computeIfPresent(key, (k, list) -> {
+            List<int[]> updated = new ArrayList<>(list);
+            updated.removeIf(h -> h[0] == from && h[1] == to);
+            return updated.isEmpty() ? null : updated;
+        });
+        days.computeIfPresent(key, (k, day) -> {
+            day.release(from, to);
+            return day;
+        });
+    }
+
+    /** Marks the current holds of a provider-day on a day built outside the index. */
+    public void applyHolds(UUID providerId, LocalDate date, Day day) {
+        List<int[]> held = holds.get(new Key(providerId, date));
+        if (held != null) {
+            for (int[] h : held) {
+                day.hold(h[0], h[1]);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (event.kind() == AppointmentChangedEvent.Kind.RESCHEDULED) {
+            apply(event.providerId(), event.previousDate(), event.previousStartTime(), event.previousEndTime(), false);
+        }
+        apply(event.providerId(), event.date(), event.startTime(), event.endTime(),
+                event.kind() != AppointmentChangedEvent.Kind.CANCELLED);
+    }
+
+    private void apply(UUID providerId, LocalDate date, LocalTime start, LocalTime end, boolean booked) {
+        int from = SlotEngine.toMinute(start);
+        int to = SlotEngine.toMinute(end);
+        // computeIfPresent waits for a concurrent load of the same day, so the change is
+        // applied on top of whatever snapshot that load read. Both updates are idempotent.
+        days.computeIfPresent(changing(providerId, date), (k, day) -> {
+            if (booked) {
+                day.mark(from, to);
+            } else {
+                day.clear(from, to);
+            }
+            return day;
+        });
+    }
+
+    /**
+     * Drops every cached day of a provider once the current transaction commits,
+     * e.g. after their weekly availability changed.
+     */
+    public void evictProvider(Long providerId) {
+        Runnable evict = () -> {
+            // Days of this provider being loaded right now read the old availability
+            for (int i = 0; i < STRIPES; i++) {
+                stamps.incrementAndGet(i);
+            }
+            days.keySet().removeIf(k -> UserIds.toLong(k.providerId()).equals(providerId));
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    @Scheduled(cron = "0 5 0 * * *") // shortly after midnight
+    public void evictPastDays() {
+        evictBefore(LocalDate.now());
+    }
+
+    private void evictBefore(LocalDate date) {
+        days.keySet().removeIf(k -> k.date().isBefore(date));
+    }
+
+    // Drops up to count days in the map's own order, which is unrelated to age or use
+    private void evictSome(int count) {
+        Iterator<Key> keys = days.keySet().iterator();
+        for (int i = 0; i < count && keys.hasNext(); i++) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private Key changing(UUID providerId, LocalDate date) {
+        Key key = new Key(providerId, date);
+        stamps.incrementAndGet(stripe(key));
+        return key;
+    }
+
+    private static int stripe(Key key) {
+        return key.hashCode() & (STRIPES - 1);
+    }
+
+    /**
+     * One provider's working window on one date. {@code closed} holds minutes that are
+     * never bookable that day (breaks, partial holidays); {@code booked} is kept current
+     * from appointment events, {@code held} from slot holds, and {@code busy} is their
+     * union used by lookups.
+     */
+    public static final class Day {
+
+        private final int open;
+        private final int close;
+        private final int duration;
+        private final long[] closed;
+        private final long[] booked = SlotEngine.newMask();
+        private final long[] held = SlotEngine.newMask();
+        private final long[] busy;
+
+        public Day(int open, int close, int duration, long[] closed) {
+            this.open = open;
+            this.close = close;
+            this.duration = duration;
+            this.closed = closed.clone();
+            this.busy = closed.clone();
+        }
+
+        public static Day closed() {
+            return new Day(0, 0, 1, SlotEngine.newMask());
+        }
+
+        public int duration() {
+            return duration;
+        }
+
+        /** True if a slot may start at {@code minute}: slots are aligned to the opening minute. */
+        public boolean isSlotStart(int minute) {
+            return minute >= open && (minute - open) % duration == 0;
+        }
+
+        public synchronized void mark(int from, int to) {
+            SlotEngine.mark(booked, from, to);
+            refresh();
+        }
+
+        public synchronized void clear(int from, int to) {
+            SlotEngine.clear(booked, from, to);
+            refresh();
+        }
+
+        public synchronized void hold(int from, int to) {
+            SlotEngine.mark(held, from, to);
+            refresh();
+        }
+
+        public synchronized void release(int from, int to) {
+            SlotEngine.clear(held, from, to);
+            refresh();
+        }
+
+        public synchronized boolean isFree(int from, int to) {
+            return from >= open && to <= close && SlotEngine.isClear(busy, from, to);
+        }
+
+        /** Like {@link #isFree} but ignoring bookings, for callers that check those themselves. */
+        public synchronized boolean isOpen(int from, int to) {
+            return from >= open && to <= close
+                    && SlotEngine.isClear(closed, from, to) && SlotEngine.isClear(held, from, to);
+        }
+
+        public int maxSlots() {
+            return SlotEngine.maxSlots(open, close, duration);
+        }
+
+        /** Writes the free slot starts (minute of day) into {@code out}; returns the count. */
+        public synchronized int freeStarts(int[] out) {
+            return SlotEngine.freeStarts(busy, open, close, duration, out);
+        }
+
+        public synchronized List<LocalTime> freeSlots() {
+            int[] starts = new int[maxSlots()];
+            int n = SlotEngine.freeStarts(busy, open, close, duration, starts);
+            List<LocalTime> slots = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                slots.add(SlotEngine.toTime(starts[i]));
+            }
+            return slots;
+        }
+
+        private void refresh() {
+            for (int i = 0; i < busy.length; i++) {
+                busy[i] = closed[i] | booked[i] | held[i];
+            }
+        }
+    }
+}
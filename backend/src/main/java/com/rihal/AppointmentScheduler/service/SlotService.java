@@ -1,63 +1,328 @@
 package com.rihal.AppointmentScheduler.service;
 
-import java.time.Duration;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
+
+import com.rihal.AppointmentScheduler.dto.SlotDTO;
 import com.rihal.AppointmentScheduler.model.Appointment;
+import com.rihal.AppointmentScheduler.model.AppointmentStatus;
 import com.rihal.AppointmentScheduler.model.Availability;
+import com.rihal.AppointmentScheduler.model.BreakTime;
+import com.rihal.AppointmentScheduler.model.Holiday;
+import com.rihal.AppointmentScheduler.model.User;
 import com.rihal.AppointmentScheduler.repository.AppointmentRepository;
 import com.rihal.AppointmentScheduler.repository.AvailabilityRepository;
+import com.rihal.AppointmentScheduler.repository.HolidayRepository;
+import com.rihal.AppointmentScheduler.repository.UserRepository;
 
 @Service
 public class SlotService {
 
     private final AvailabilityRepository availabilityRepository;
     private final AppointmentRepository appointmentRepository;
+    private final HolidayRepository holidayRepository;
+    private final UserRepository userRepository;
+    private final SlotIndex slotIndex;
+    private final SeriesOccurrences seriesOccurrences;
+
+    // CPU-bound per-provider slot computation for cross-provider searches
+    private final ForkJoinPool searchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private static final int DEFAULT_SLOT_MINUTES = 30;
+    private static final int MAX_RANGE_DAYS = 366;
+    private static final int MAX_RESULTS = 200;
 
-    private static final Duration STEP = Duration.ofMinutes(30);
+    private static final Comparator<SlotDTO> EARLIEST_FIRST = Comparator
+            .comparing((SlotDTO s) -> s.date)
+            .thenComparing(s -> s.startTime)
+            .thenComparing(s -> s.providerId);
 
     public SlotService(AvailabilityRepository availabilityRepository,
-                       AppointmentRepository appointmentRepository) {
+                       AppointmentRepository appointmentRepository,
+                       HolidayRepository holidayRepository,
+                       UserRepository userRepository,
+                       SlotIndex slotIndex,
+                       SeriesOccurrences seriesOccurrences) {
         this.availabilityRepository = availabilityRepository;
         this.appointmentRepository = appointmentRepository;
+        this.holidayRepository = holidayRepository;
+        this.userRepository = userRepository;
+        this.slotIndex = slotIndex;
+        this.seriesOccurrences = seriesOccurrences;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        searchPool.shutdownNow();
     }
 
     public List<LocalTime> getSlots(UUID providerId, LocalDate date) {
-        // Convert UUID to Long for Availability queries
-        // This is a temporary workaround for the type mismatch
-        Long providerLong = Long.parseLong(providerId.toString().replace("-", "").substring(0, 16), 16);
-        List<Availability> availabilities = availabilityRepository
-                .findByProviderIdAndDayOfWeek(providerLong, date.getDayOfWeek());
+        return day(providerId, date).freeSlots();
+    }
+
+    SlotIndex.Day day(UUID providerId, LocalDate date) {
+        return slotIndex.day(providerId, date, () -> loadDay(providerId, date));
+    }
+
+    /**
+     * First {@code limit} free slots of a provider between {@code from} and {@code to}
+     * (inclusive), skipping slots that already started. Availability, booked appointments
+     * and holidays for the whole window are read with one query each.
+     */
+    public List<SlotDTO> findNextFree(UUID providerId, LocalDate from, LocalDate to, int limit) {
+        validateSearch(from, to, limit);
+
+        Long providerKey = UserIds.toLong(providerId);
+        Map<DayOfWeek, Availability> weekly = new EnumMap<>(DayOfWeek.class);
+        for (Availability a : availabilityRepository.findActiveWithBreaks(providerKey)) {
+            weekly.putIfAbsent(a.getDayOfWeek(), a);
+        }
+        if (weekly.isEmpty()) {
+            return List.of();
+        }
+        Map<LocalDate, Holiday> holidays = new HashMap<>();
+        for (Holiday h : holidayRepository.findByProviderIdAndDateRange(providerKey, from, to)) {
+            holidays.putIfAbsent(h.getDate(), h);
+        }
+        List<Appointment> booked = seriesOccurrences.merge(appointmentRepository
+                .findByProviderIdAndStatusAndDateBetweenOrderByDateAscStartTimeAsc(
+                        providerId, AppointmentStatus.BOOKED, from, to), providerId, from, to);
+
+        return collectFree(providerId, from, to, limit, weekly, holidays, booked, slotIndex, LocalDateTime.now());
+    }
+
+    /**
+     * Earliest {@code limit} free slots across every provider. Schedules of all providers
+     * are loaded in bulk (a fixed number of queries), each provider's slots are computed in
+     * parallel, and the per-provider results are merged through a bounded max-heap so only
+     * {@code limit} candidates are ever retained.
+     */
+    public List<SlotDTO> findFirstAvailable(LocalDate from, LocalDate to, int limit) {
+        validateSearch(from, to, limit);
+
+        List<Long> providerKeys = userRepository.findByRole(User.Role.PROVIDER).stream()
+                .map(User::getId)
+                .toList();
+        if (providerKeys.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Map<DayOfWeek, Availability>> weeklyByProvider = new HashMap<>();
+        for (Availability a : availabilityRepository.findActiveWithBreaksByProviderIds(providerKeys)) {
+            weeklyByProvider.computeIfAbsent(a.getProvider().getId(), k -> new EnumMap<>(DayOfWeek.class))
+                    .putIfAbsent(a.getDayOfWeek(), a);
+        }
+        if (weeklyByProvider.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Map<LocalDate, Holiday>> holidaysByProvider = new HashMap<>();
+        for (Holiday h : holidayRepository.findByProviderIdsAndDateRange(weeklyByProvider.keySet(), from, to)) {
+            holidaysByProvider.computeIfAbsent(h.getProvider().getId(), k -> new HashMap<>())
+                    .putIfAbsent(h.getDate(), h);
+        }
+        List<UUID> providerIds = weeklyByProvider.keySet().stream().map(UserIds::toUuid).toList();
+        Map<UUID, List<Appointment>> bookedByProvider = new HashMap<>();
+        for (Appointment a : appointmentRepository.findByProviderIdInAndStatusAndDateBetweenOrderByDateAscStartTimeAsc(
+                providerIds, AppointmentStatus.BOOKED, from, to)) {
+            bookedByProvider.computeIfAbsent(a.getProviderId(), k -> new ArrayList<>()).add(a);
+        }
+        seriesOccurrences.expand(providerIds, from, to).forEach((providerId, occurrences) -> {
+            List<Appointment> booked = bookedByProvider.computeIfAbsent(providerId, k -> new ArrayList<>());
+            booked.addAll(occurrences);
+            booked.sort(SeriesOccurrences.BY_DATE_AND_TIME);
+        });
 
-        if (availabilities.isEmpty()) return List.of();
+        LocalDateTime now = LocalDateTime.now();
+        List<Callable<List<SlotDTO>>> tasks = new ArrayList<>(providerIds.size());
+        for (UUID providerId : providerIds) {
+            Long key = UserIds.toLong(providerId);
+            tasks.add(() -> collectFree(providerId, from, to, limit,
+                    weeklyByProvider.get(key),
+                    holidaysByProvider.getOrDefault(key, Map.of()),
+                    bookedByProvider.getOrDefault(providerId, List.of()),
+                    slotIndex,
+                    now));
+        }
 
-        // Get the first availability for the day (assuming one per day)
-        Availability availability = availabilities.get(0);
+        PriorityQueue<SlotDTO> best = new PriorityQueue<>(limit + 1, EARLIEST_FIRST.reversed());
+        try {
+            for (Future<List<SlotDTO>> f : searchPool.invokeAll(tasks)) {
+                for (SlotDTO slot : f.get()) {
+                    if (best.size() < limit) {
+                        best.offer(slot);
+                    } else if (EARLIEST_FIRST.compare(slot, best.peek()) < 0) {
+                        best.poll();
+                        best.offer(slot);
+                    } else {
+                        break; // per-provider results are in time order
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Slot search interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Slot search failed", e.getCause());
+        }
 
-        List<LocalTime> allSlots = enumerate(availability.getStartTime(), availability.getEndTime(), STEP);
-        List<Appointment> booked = appointmentRepository
-                .findByProviderIdAndDateAndStatus(providerId, date, Appointment.Status.BOOKED);
+        List<SlotDTO> result = new ArrayList<>(best);
+        result.sort(EARLIEST_FIRST);
+        return result;
+    }
 
-        Set<LocalTime> taken = booked.stream()
-                .map(Appointment::getStartTime)
-                .collect(Collectors.toSet());
+    /**
+     * Day templates (hours, breaks, holidays and current holds, no bookings) of one provider for
+     * every date in {@code [from, to]}, read with one availability and one holiday query.
+     * Dates the provider does not work map to a closed day.
+     */
+    Map<LocalDate, SlotIndex.Day> dayTemplates(UUID providerId, LocalDate from, LocalDate to) {
+        Long providerKey = UserIds.toLong(providerId);
+        Map<DayOfWeek, Availability> weekly = new EnumMap<>(DayOfWeek.class);
+        for (Availability a : availabilityRepository.findActiveWithBreaks(providerKey)) {
+            weekly.putIfAbsent(a.getDayOfWeek(), a);
+        }
+        Map<LocalDate, Holiday> holidays = new HashMap<>();
+        if (!weekly.isEmpty()) {
+            for (Holiday h : holidayRepository.findByProviderIdAndDateRange(providerKey, from, to)) {
+                holidays.putIfAbsent(h.getDate(), h);
+            }
+        }
+        Map<LocalDate, SlotIndex.Day> days = new HashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            SlotIndex.Day day = dayTemplate(weekly.get(date.getDayOfWeek()), holidays.get(date));
+            slotIndex.applyHolds(providerId, date, day);
+            days.put(date, day);
+        }
+        return days;
+    }
 
-        return allSlots.stream().filter(t -> !taken.contains(t)).toList();
+    private static void validateSearch(LocalDate from, LocalDate to, int limit) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_RESULTS);
+        }
     }
 
-    private List<LocalTime> enumerate(LocalTime start, LocalTime end, Duration step) {
-        List<LocalTime> times = new ArrayList<>();
-        for (LocalTime t = start; !t.plus(step).isAfter(end); t = t.plus(step)) {
-            times.add(t);
+    /**
+     * Walks the window day by day over pre-loaded schedule data. {@code booked} must be in
+     * date order; it is consumed with a single cursor. Current holds are taken from
+     * {@code index}.
+     */
+    static List<SlotDTO> collectFree(UUID providerId, LocalDate from, LocalDate to, int limit,
+                                     Map<DayOfWeek, Availability> weekly,
+                                     Map<LocalDate, Holiday> holidays,
+                                     List<Appointment> booked,
+                                     SlotIndex index,
+                                     LocalDateTime now) {
+        List<SlotDTO> result = new ArrayList<>(Math.min(limit, 64));
+        LocalDate today = now.toLocalDate();
+        int nowMinute = SlotEngine.toMinute(now.toLocalTime());
+        int cursor = 0;
+        int[] starts = new int[0];
+
+        for (LocalDate date = from; !date.isAfter(to) && result.size() < limit; date = date.plusDays(1)) {
+            while (cursor < booked.size() && booked.get(cursor).getDate().isBefore(date)) {
+                cursor++;
+            }
+            Availability availability = weekly.get(date.getDayOfWeek());
+            if (availability == null || date.isBefore(today)) {
+                continue;
+            }
+            SlotIndex.Day day = dayTemplate(availability, holidays.get(date));
+            for (; cursor < booked.size() && booked.get(cursor).getDate().equals(date); cursor++) {
+                Appointment a = booked.get(cursor);
+                day.mark(SlotEngine.toMinute(a.getStartTime()), SlotEngine.toMinute(a.getEndTime()));
+            }
+            index.applyHolds(providerId, date, day);
+
+            if (starts.length < day.maxSlots()) {
+                starts = new int[day.maxSlots()];
+            }
+            int n = day.freeStarts(starts);
+            for (int i = 0; i < n && result.size() < limit; i++) {
+                if (date.equals(today) && starts[i] <= nowMinute) {
+                    continue;
+                }
+                result.add(SlotDTO.of(providerId, date,
+                        SlotEngine.toTime(starts[i]),
+                        SlotEngine.toTime(starts[i] + day.duration())));
+            }
         }
-        return times;
+        return result;
+    }
+
+    private SlotIndex.Day loadDay(UUID providerId, LocalDate date) {
+        Long providerKey = UserIds.toLong(providerId);
+        Availability availability = availabilityRepository
+                .findActiveWithBreaks(providerKey, date.getDayOfWeek())
+                .stream()
+                .findFirst() // one availability per day of week
+                .orElse(null);
+        Holiday holiday = holidayRepository.findByProviderIdAndDate(providerKey, date)
+                .stream()
+                .findFirst()
+                .orElse(null);
+
+        SlotIndex.Day day = dayTemplate(availability, holiday);
+        List<Appointment> booked = new ArrayList<>(appointmentRepository
+                .findByProviderIdAndDateAndStatus(providerId, date, AppointmentStatus.BOOKED));
+        booked.addAll(seriesOccurrences.expand(providerId, date, date));
+        for (Appointment a : booked) {
+            day.mark(SlotEngine.toMinute(a.getStartTime()), SlotEngine.toMinute(a.getEndTime()));
+        }
+        return day;
+    }
+
+    /**
+     * Builds an empty day from the weekly availability, with breaks and a partial-day
+     * holiday already closed off. A missing availability or a full-day holiday yields a
+     * day with no slots.
+     */
+    static SlotIndex.Day dayTemplate(Availability availability, Holiday holiday) {
+        if (availability == null
+                || (holiday != null && holiday.getType() != Holiday.HolidayType.PARTIAL_DAY)) {
+            return SlotIndex.Day.closed();
+        }
+
+        long[] closed = SlotEngine.newMask();
+        if (availability.getBreakTimes() != null) {
+            for (BreakTime b : availability.getBreakTimes()) {
+                SlotEngine.mark(closed, SlotEngine.toMinute(b.getStartTime()), SlotEngine.toMinute(b.getEndTime()));
+            }
+        }
+        if (holiday != null && holiday.getStartTime() != null && holiday.getEndTime() != null) {
+            SlotEngine.mark(closed, SlotEngine.toMinute(holiday.getStartTime()), SlotEngine.toMinute(holiday.getEndTime()));
+        }
+
+        Integer duration = availability.getSlotDurationMinutes();
+        return new SlotIndex.Day(
+                SlotEngine.toMinute(availability.getStartTime()),
+                SlotEngine.toMinute(availability.getEndTime()),
+                duration == null || duration <= 0 ? DEFAULT_SLOT_MINUTES : duration,
+                closed);
     }
 }
@@ -0,0 +1,49 @@
+package com.rihal.AppointmentScheduler.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.rihal.AppointmentScheduler.model.NotificationLog.Channel;
+import com.rihal.AppointmentScheduler.model.User;
+
+/**
+ * SMS to the recipient's phone number. No gateway is integrated yet: with
+ * {@code notifications.channels.sms.enabled} the rendered text is written to the log,
+ * taking {@code latency-ms} like a gateway round trip would.
+ */
+@Component
+public class SmsSender implements ChannelSender {
+
+    private static final Logger log = LoggerFactory.getLogger(SmsSender.class);
+
+    private final NotificationTemplates templates;
+    private final boolean enabled;
+    private final long latencyMs;
+
+    public SmsSender(NotificationTemplates templates,
+                     @Value("${notifications.channels.sms.enabled:false}") boolean enabled,
+                     @Value("${notifications.channels.sms.latency-ms:0}") long latencyMs) {
+        this.templates = templates;
+        this.enabled = enabled;
+        this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public Channel channel() {
+        return Channel.SMS;
+    }
+
+    @Override
+    public boolean canReach(User recipient) {
+        return enabled && recipient != null && recipient.getPhone() != null && !recipient.getPhone().isBlank();
+    }
+
+    @Override
+    public void send(NotificationDispatcher.Notification notification, User recipient) throws InterruptedException {
+        NotificationTemplates.Rendered content = templates.render(notification.eventType(), notification.params());
+        Thread.sleep(latencyMs);
+        log.info("SMS to {}: {}", recipient.getPhone(), content.body());
+    }
+}
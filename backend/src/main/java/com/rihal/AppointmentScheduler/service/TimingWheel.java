@@ -0,0 +1,171 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hierarchical timing wheel for large numbers of timeouts, most of them cancelled.
+ *
+ * Level 0 has one bucket per tick; each further level has buckets {@code wheelSize}
+ * times coarser and is added when a deadline is too far out for the existing ones.
+ * An item sits on the lowest level whose bucket still separates it from the current
+ * tick and cascades down a level whenever that bucket comes round, so scheduling and
+ * cancelling are O(1) and each item is touched once per level on its way to firing.
+ * A single ticker thread advances one tick at a time and hands due items to
+ * {@code onExpire}. Deadlines are measured from the wheel's start and rounded up to the
+ * tick, so an item never fires early and at most one tick late.
+ */
+public final class TimingWheel<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+
+    /** Handle of a scheduled item. */
+    public interface Timeout {
+        /** Returns true if the item was still pending and will now never fire. */
+        boolean cancel();
+    }
+
+    private final class Entry implements Timeout {
+        final T item;
+        final long deadlineTick;
+        boolean done;
+
+        Entry(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        @Override
+        public boolean cancel() {
+            synchronized (TimingWheel.this) {
+                if (done) {
+                    return false;
+                }
+                done = true;
+                pending--;
+                return true;
+            }
+        }
+    }
+
+    private final long tickMs;
+    private final int bits;
+    private final int mask;
+    private final List<List<LinkedList<Entry>>> levels = new ArrayList<>();
+    private final Consumer<T> onExpire;
+    private final ScheduledExecutorService ticker;
+    private final long startNanos = System.nanoTime();
+    private long tick;
+    private int pending;
+
+    public TimingWheel(String name, long tickMs, int wheelSize, Consumer<T> onExpire) {
+        if (tickMs <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize greater than 1");
+        }
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickMs = tickMs;
+        this.bits = Integer.numberOfTrailingZeros(size);
+        this.mask = size - 1;
+        addLevel();
+        this.onExpire = onExpire;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    public Timeout schedule(T item, long delayMs) {
+        // Tick n runs n * tickMs after the start, whatever part of the current tick is left
+        long dueMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + Math.max(0, delayMs);
+        long dueTick = (dueMs + tickMs - 1) / tickMs;
+        synchronized (this) {
+            Entry entry = new Entry(item, Math.max(tick + 1, dueTick));
+            place(entry);
+            pending++;
+            return entry;
+        }
+    }
+
+    public synchronized int size() {
+        return pending;
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    private void advance() {
+        List<T> due = new ArrayList<>();
+        synchronized (this) {
+            tick++;
+            // Higher levels first, so their items can still land in this tick's level-0 bucket
+            for (int level = levels.size() - 1; level > 0; level--) {
+                if ((tick & ((1L << (bits * level)) - 1)) == 0) {
+                    LinkedList<Entry> bucket = bucket(level, tick);
+                    List<Entry> cascading = new ArrayList<>(bucket);
+                    bucket.clear();
+                    for (Entry e : cascading) {
+                        if (!e.done) {
+                            place(e);
+                        }
+                    }
+                }
+            }
+            LinkedList<Entry> bucket = bucket(0, tick);
+            for (Entry e : bucket) {
+                if (!e.done) {
+                    e.done = true;
+                    pending--;
+                    due.add(e.item);
+                }
+            }
+            bucket.clear();
+        }
+        for (T item : due) {
+            try {
+                onExpire.accept(item);
+            } catch (RuntimeException ex) {
+                log.warn("Timing wheel callback failed", ex);
+            }
+        }
+    }
+
+    /**
+     * Puts the entry on the lowest level at which its deadline and the current tick share
+     * every higher digit; on level 0 that means it is due exactly when its bucket comes up.
+     */
+    private void place(Entry e) {
+        long deadline = Math.max(e.deadlineTick, tick);
+        int level = 0;
+        while ((deadline >>> (bits * (level + 1))) != (tick >>> (bits * (level + 1)))) {
+            level++;
+        }
+        while (levels.size() <= level) {
+            addLevel();
+        }
+        bucket(level, deadline).add(e);
+    }
+
+    private LinkedList<Entry> bucket(int level, long atTick) {
+        return levels.get(level).get((int) ((atTick >>> (bits * level)) & mask));
+    }
+
+    private void addLevel() {
+        List<LinkedList<Entry>> buckets = new ArrayList<>(mask + 1);
+        for (int i = 0; i <= mask; i++) {
+            buckets.add(new LinkedList<>());
+        }
+        levels.add(buckets);
+    }
+}
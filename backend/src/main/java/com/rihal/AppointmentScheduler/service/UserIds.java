@@ -0,0 +1,21 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.util.UUID;
+
+/**
+ * Appointments reference users by UUID while {@link com.rihal.AppointmentScheduler.model.User}
+ * uses a Long key. This is the temporary mapping between the two until they share one id type:
+ * the Long is carried in the most significant 64 bits of the UUID.
+ */
+public final class UserIds {
+
+    private UserIds() {}
+
+    public static Long toLong(UUID id) {
+        return id.getMostSignificantBits();
+    }
+
+    public static UUID toUuid(Long id) {
+        return new UUID(id, 0L);
+    }
+}
@@ -0,0 +1,329 @@
+package com.rihal.AppointmentScheduler.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rihal.AppointmentScheduler.dto.WaitlistRequest;
+import com.rihal.AppointmentScheduler.event.AppointmentChangedEvent;
+import com.rihal.AppointmentScheduler.event.HoldEndedEvent;
+import com.rihal.AppointmentScheduler.model.Appointment;
+import com.rihal.AppointmentScheduler.model.WaitlistEntry;
+import com.rihal.AppointmentScheduler.repository.AppointmentRepository;
+import com.rihal.AppointmentScheduler.repository.WaitlistEntryRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Per provider-day waitlists that hand a cancelled slot straight to the next waiter.
+ *
+ * Entries are persisted in {@code waitlist_entries}; the waiting ones of a provider-day
+ * are kept in memory in serving order (priority, then arrival) once that day is asked
+ * for. {@link #allocate} runs inside the cancelling transaction, so the slot is either
+ * booked for the waiter or offered to them as a {@link SlotHolds hold} atomically with
+ * the cancellation, and nobody has to poll for freed slots. An offer that is not
+ * confirmed before its hold ends moves to EXPIRED and the slot goes to the next waiter.
+ * Offers are tracked in memory like the holds themselves.
+ *
+ * The in-memory queue only picks the candidate: a waiter is served by a conditional
+ * update on its status and version, so when several nodes free slots of the same day
+ * each waiter is still served once. Queues of past days are dropped nightly.
+ */
+@Service
+public class WaitlistService {
+
+    public static final int MAX_PRIORITY = 10;
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistService.class);
+
+    private static final Comparator<WaitlistEntry> SERVING_ORDER =
+            Comparator.comparingInt(WaitlistEntry::getPriority).reversed()
+                    .thenComparing(WaitlistEntry::getCreatedAt)
+                    .thenComparing(WaitlistEntry::getId);
+
+    private record Key(UUID providerId, LocalDate date) {}
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final NotificationDispatcher notificationDispatcher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SlotHolds slotHolds;
+    private final BookingLocks bookingLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<Key, TreeSet<WaitlistEntry>> queues = new ConcurrentHashMap<>();
+    // Hold id -> waitlist entry it was offered to, until the hold ends
+    private final ConcurrentHashMap<UUID, UUID> offers = new ConcurrentHashMap<>();
+
+    public WaitlistService(WaitlistEntryRepository waitlistRepository,
+                           AppointmentRepository appointmentRepository,
+                           NotificationDispatcher notificationDispatcher,
+                           ApplicationEventPublisher eventPublisher,
+                           SlotHolds slotHolds,
+                           BookingLocks bookingLocks,
+                           PlatformTransactionManager transactionManager) {
+        this.waitlistRepository = waitlistRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.notificationDispatcher = notificationDispatcher;
+        this.eventPublisher = eventPublisher;
+        this.slotHolds = slotHolds;
+        this.bookingLocks = bookingLocks;
+        // Hold endings are handled after the confirming transaction, so they need their own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional
+    public WaitlistEntry join(WaitlistRequest request) {
+        if (request.getCustomerId() == null || request.getProviderId() == null || request.getDate() == null) {
+            throw new IllegalArgumentException("customerId, providerId and date are required");
+        }
+        if (request.getDate().isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Cannot join the waitlist for a past date");
+        }
+        if (request.getPriority() < 0 || request.getPriority() > MAX_PRIORITY) {
+            throw new IllegalArgumentException("Priority must be between 0 and " + MAX_PRIORITY);
+        }
+        if (request.getEarliestStart() != null && request.getLatestStart() != null
+                && request.getLatestStart().isBefore(request.getEarliestStart())) {
+            throw new IllegalArgumentException("latestStart must not be before earliestStart");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setCustomerId(request.getCustomerId());
+        entry.setProviderId(request.getProviderId());
+        entry.setDate(request.getDate());
+        entry.setEarliestStart(request.getEarliestStart());
+        entry.setLatestStart(request.getLatestStart());
+        entry.setPriority(request.getPriority());
+        entry.setAutoBook(request.isAutoBook());
+        entry = waitlistRepository.save(entry);
+        evictAfterCompletion(new Key(entry.getProviderId(), entry.getDate()));
+        return entry;
+    }
+
+    public WaitlistEntry get(UUID entryId) {
+        return waitlistRepository.findById(entryId)
+                .orElseThrow(() -> new EntityNotFoundException("Waitlist entry not found"));
+    }
+
+    @Transactional
+    public void leave(UUID entryId) {
+        WaitlistEntry entry = get(entryId);
+        if (entry.getStatus() == WaitlistEntry.Status.WAITING) {
+            entry.setStatus(WaitlistEntry.Status.REMOVED);
+            waitlistRepository.save(entry);
+        }
+        evictAfterCompletion(new Key(entry.getProviderId(), entry.getDate()));
+    }
+
+    /** Waiting entries of a provider-day in serving order. */
+    public List<WaitlistEntry> waiting(UUID providerId, LocalDate date) {
+        TreeSet<WaitlistEntry> queue = queue(new Key(providerId, date));
+        synchronized (queue) {
+            return new ArrayList<>(queue);
+        }
+    }
+
+    public List<WaitlistEntry> forCustomer(UUID customerId) {
+        return waitlistRepository.findByCustomerIdAndStatusOrderByDateAsc(customerId, WaitlistEntry.Status.WAITING);
+    }
+
+    /**
+     * Hands the slot of a just-cancelled appointment (or lapsed offer) to the first waiter
+     * whose window accepts it. Must be called inside the freeing transaction; if that rolls back,
+     * the waiter is back in the queue and any offered hold is released.
+     */
+    public void allocate(Appointment cancelled) {
+        if (LocalDateTime.of(cancelled.getDate(), cancelled.getStartTime()).isBefore(LocalDateTime.now())) {
+            return;
+        }
+        Key key = new Key(cancelled.getProviderId(), cancelled.getDate());
+        TreeSet<WaitlistEntry> queue = queue(key);
+        evictAfterRollback(key);
+        WaitlistEntry next;
+        while ((next = pollFirstAccepting(queue, cancelled.getStartTime())) != null) {
+            WaitlistEntry.Status outcome = next.isAutoBook() ? WaitlistEntry.Status.BOOKED : WaitlistEntry.Status.OFFERED;
+            // The queue may be stale: another node can have served or removed this waiter.
+            // The queued instance itself is left untouched, it may be managed by this transaction.
+            if (waitlistRepository.claim(next.getId(), next.getVersion(), outcome) == 0) {
+                continue;
+            }
+            if (next.isAutoBook()) {
+                bookFor(next, cancelled);
+            } else {
+                offerTo(next, cancelled);
+            }
+            return;
+        }
+    }
+
+    private static WaitlistEntry pollFirstAccepting(TreeSet<WaitlistEntry> queue, LocalTime start) {
+        synchronized (queue) {
+            for (Iterator<WaitlistEntry> it = queue.iterator(); it.hasNext(); ) {
+                WaitlistEntry e = it.next();
+                if (e.accepts(start)) {
+                    it.remove();
+                    return e;
+                }
+            }
+            return null;
+        }
+    }
+
+    private void bookFor(WaitlistEntry entry, Appointment freed) {
+        // The cancellation must reach the database before the same slot is inserted again
+        appointmentRepository.flush();
+        Appointment appt = appointmentRepository.saveAndFlush(BookingService.newAppointment(
+                entry.getCustomerId(), freed.getProviderId(), freed.getDate(), freed.getStartTime(), freed.getEndTime()));
+        waitlistRepository.linkAppointment(entry.getId(), appt.getId());
+
+        eventPublisher.publishEvent(AppointmentChangedEvent.booked(appt));
+        notificationDispatcher.dispatch(
+                "WAITLIST_BOOKED",
+                entry.getCustomerId(),
+                appt.getId(),
+                null,
+                appt.getDate(), appt.getStartTime()
+        );
+    }
+
+    private void offerTo(WaitlistEntry entry, Appointment freed) {
+        SlotHolds.Hold hold = slotHolds.add(entry.getCustomerId(), freed.getProviderId(), freed.getDate(),
+                freed.getStartTime(), freed.getEndTime());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    offers.put(hold.id(), entry.getId());
+                } else if (slotHolds.take(hold.id()) != null) {
+                    slotHolds.unmark(hold);
+                }
+            }
+        });
+
+        notificationDispatcher.dispatch(
+                "WAITLIST_SLOT_OFFERED",
+                entry.getCustomerId(),
+                null,
+                hold.id().toString(),
+                freed.getDate(), freed.getStartTime(), hold.expiresAt(), hold.id()
+        );
+    }
+
+    /**
+     * Settles the waitlist entry an ended hold was offered to: BOOKED if the customer
+     * confirmed it, otherwise EXPIRED, and the slot is offered to the next waiter. The
+     * re-offer runs on its own thread, since expiries fire on the hold timer thread.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHoldEnded(HoldEndedEvent event) {
+        UUID entryId = offers.remove(event.holdId());
+        if (entryId == null) {
+            return;
+        }
+        if (event.confirmed()) {
+            settle(entryId, WaitlistEntry.Status.BOOKED, event.appointmentId());
+        } else {
+            Thread.ofVirtual().name("waitlist-reoffer").start(() -> reoffer(entryId, event));
+        }
+    }
+
+    private void reoffer(UUID entryId, HoldEndedEvent lapsed) {
+        try {
+            settle(entryId, WaitlistEntry.Status.EXPIRED, null);
+            Lock lock = bookingLocks.lockFor(lapsed.providerId(), lapsed.date());
+            lock.lock();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!appointmentRepository.existsOverlap(lapsed.providerId(), lapsed.date(),
+                            lapsed.startTime(), lapsed.endTime(), null)) {
+                        allocate(freedSlot(lapsed));
+                    }
+                });
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not offer the slot of expired hold {} to the next waiter", lapsed.holdId(), e);
+        }
+    }
+
+    private void settle(UUID entryId, WaitlistEntry.Status outcome, UUID appointmentId) {
+        transactionTemplate.executeWithoutResult(status -> waitlistRepository.findById(entryId)
+                .filter(e -> e.getStatus() == WaitlistEntry.Status.OFFERED)
+                .ifPresent(e -> {
+                    e.setStatus(outcome);
+                    e.setAppointmentId(appointmentId);
+                    waitlistRepository.save(e);
+                }));
+    }
+
+    private static Appointment freedSlot(HoldEndedEvent lapsed) {
+        Appointment slot = new Appointment();
+        slot.setProviderId(lapsed.providerId());
+        slot.setDate(lapsed.date());
+        slot.setStartTime(lapsed.startTime());
+        slot.setEndTime(lapsed.endTime());
+        return slot;
+    }
+
+    @Scheduled(cron = "0 5 0 * * *") // shortly after midnight, like the slot index
+    public void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        queues.keySet().removeIf(k -> k.date().isBefore(today));
+    }
+
+    private TreeSet<WaitlistEntry> queue(Key key) {
+        return queues.computeIfAbsent(key, k -> {
+            TreeSet<WaitlistEntry> queue = new TreeSet<>(SERVING_ORDER);
+            queue.addAll(waitlistRepository.findByProviderIdAndDateAndStatus(
+                    k.providerId(), k.date(), WaitlistEntry.Status.WAITING));
+            return queue;
+        });
+    }
+
+    private void evictAfterCompletion(Key key) {
+        registerEviction(key, false);
+    }
+
+    private void evictAfterRollback(Key key) {
+        registerEviction(key, true);
+    }
+
+    // The database is the source of truth; a dropped queue is reloaded on next use
+    private void registerEviction(Key key, boolean onlyOnRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            queues.remove(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (!onlyOnRollback || status != STATUS_COMMITTED) {
+                    queues.remove(key);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.rihal.AppointmentScheduler.dto.SeriesRequest;
+import com.rihal.AppointmentScheduler.exception.SlotUnavailableException;
+import com.rihal.AppointmentScheduler.model.AppointmentSeries;
+import com.rihal.AppointmentScheduler.repository.AppointmentRepository;
+import com.rihal.AppointmentScheduler.repository.AppointmentSeriesRepository;
+
+class AppointmentSeriesServiceTest {
+
+    private final AppointmentSeriesRepository seriesRepository = mock(AppointmentSeriesRepository.class);
+    private final SlotService slotService = mock(SlotService.class);
+    private final AppointmentSeriesService service = new AppointmentSeriesService(
+            seriesRepository, mock(AppointmentRepository.class), mock(SeriesOccurrences.class),
+            slotService, new SlotIndex(10), mock(BookingLocks.class),
+            mock(NotificationDispatcher.class), mock(ApplicationEventPublisher.class),
+            mock(WaitlistService.class), mock(PlatformTransactionManager.class));
+
+    private AppointmentSeries series(LocalDate startDate, LocalDate untilDate) {
+        AppointmentSeries series = new AppointmentSeries();
+        series.setId(UUID.randomUUID());
+        series.setCustomerId(UserIds.toUuid(2L));
+        series.setProviderId(UserIds.toUuid(1L));
+        series.setDayOfWeek(startDate.getDayOfWeek());
+        series.setStartDate(startDate);
+        series.setUntilDate(untilDate);
+        series.setIntervalWeeks(1);
+        series.setStartTime(LocalTime.of(9, 0));
+        series.setEndTime(LocalTime.of(9, 30));
+        when(seriesRepository.findById(series.getId())).thenReturn(Optional.of(series));
+        when(seriesRepository.save(series)).thenReturn(series);
+        return series;
+    }
+
+    @Test
+    void cancellingAnEndedSeriesKeepsItsHistory() {
+        LocalDate today = LocalDate.now();
+        AppointmentSeries ended = series(today.minusWeeks(10), today.minusWeeks(4));
+
+        assertThrows(IllegalArgumentException.class, () -> service.cancel(ended.getId()));
+
+        assertEquals(today.minusWeeks(4), ended.getUntilDate());
+        assertEquals(AppointmentSeries.Status.ACTIVE, ended.getStatus());
+        verify(seriesRepository, never()).save(any());
+    }
+
+    @Test
+    void cancellingARunningSeriesEndsItYesterday() {
+        LocalDate today = LocalDate.now();
+        AppointmentSeries running = series(today.minusWeeks(3), today.plusWeeks(3));
+
+        service.cancel(running.getId());
+
+        assertEquals(today.minusDays(1), running.getUntilDate());
+        assertEquals(AppointmentSeries.Status.ACTIVE, running.getStatus());
+        // A second cancel finds the series ended instead of moving untilDate again
+        assertThrows(IllegalArgumentException.class, () -> service.cancel(running.getId()));
+        assertEquals(today.minusDays(1), running.getUntilDate());
+    }
+
+    @Test
+    void cancellingAFutureSeriesMarksItCancelled() {
+        LocalDate today = LocalDate.now();
+        AppointmentSeries future = series(today.plusWeeks(1), today.plusWeeks(5));
+
+        service.cancel(future.getId());
+
+        assertEquals(AppointmentSeries.Status.CANCELLED, future.getStatus());
+    }
+
+    private SeriesRequest request(LocalTime startTime) {
+        LocalDate startDate = LocalDate.now().plusDays(3);
+        // 09:00-12:00 with 45-minute slots
+        when(slotService.day(UserIds.toUuid(1L), startDate))
+                .thenReturn(new SlotIndex.Day(540, 720, 45, SlotEngine.newMask()));
+        SeriesRequest request = new SeriesRequest();
+        request.setCustomerId(UserIds.toUuid(2L));
+        request.setProviderId(UserIds.toUuid(1L));
+        request.setStartDate(startDate);
+        request.setStartTime(startTime);
+        request.setCount(4);
+        return request;
+    }
+
+    @Test
+    void seriesOffTheSlotGridIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.create(request(LocalTime.of(9, 7))));
+        verify(seriesRepository, never()).save(any());
+    }
+
+    @Test
+    void seriesRunningPastClosingIsRejected() {
+        // 12:00 is on the grid, but its slot would end at 12:45
+        assertThrows(SlotUnavailableException.class, () -> service.create(request(LocalTime.of(12, 0))));
+        verify(seriesRepository, never()).save(any());
+    }
+}
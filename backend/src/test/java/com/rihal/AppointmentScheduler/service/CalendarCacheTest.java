@@ -0,0 +1,114 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.rihal.AppointmentScheduler.dto.CalendarResponse;
+import com.rihal.AppointmentScheduler.dto.DayBucketDTO;
+import com.rihal.AppointmentScheduler.event.AppointmentChangedEvent;
+import com.rihal.AppointmentScheduler.event.SeriesChangedEvent;
+import com.rihal.AppointmentScheduler.model.Appointment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CalendarCacheTest {
+
+    private static final UUID PROVIDER = UserIds.toUuid(1L);
+    private static final UUID OTHER_PROVIDER = UserIds.toUuid(3L);
+    private static final LocalDate AUG_1 = LocalDate.of(2030, 8, 1);
+    private static final LocalDate AUG_31 = LocalDate.of(2030, 8, 31);
+    private static final LocalDate SEP_1 = LocalDate.of(2030, 9, 1);
+    private static final LocalDate SEP_30 = LocalDate.of(2030, 9, 30);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CalendarCache cache = new CalendarCache(meterRegistry, 1000, Duration.ofMinutes(5));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Supplier<CalendarResponse<DayBucketDTO>> loader = () -> {
+        loads.incrementAndGet();
+        return new CalendarResponse<>();
+    };
+
+    private static CalendarCache.Key daily(UUID providerId, LocalDate start, LocalDate end) {
+        return CalendarCache.Key.of(providerId, 0L, start, end, CalendarService.Granularity.DAY, false, false, null);
+    }
+
+    private static AppointmentChangedEvent booked(UUID providerId, LocalDate date) {
+        Appointment a = new Appointment();
+        a.setId(UUID.randomUUID());
+        a.setProviderId(providerId);
+        a.setCustomerId(UserIds.toUuid(2L));
+        a.setDate(date);
+        a.setStartTime(LocalTime.of(9, 0));
+        a.setEndTime(LocalTime.of(9, 30));
+        return AppointmentChangedEvent.booked(a);
+    }
+
+    @Test
+    void servesRepeatedRequestsFromMemory() {
+        CalendarResponse<DayBucketDTO> first = cache.get(daily(PROVIDER, AUG_1, AUG_31), loader);
+
+        assertSame(first, cache.get(daily(PROVIDER, AUG_1, AUG_31), loader));
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "calendar").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void newChangeVersionIsNotServedAnOlderEntry() {
+        cache.get(daily(PROVIDER, AUG_1, AUG_31), loader);
+
+        // Another instance committed a change: the shared version moved, the local entry did not
+        cache.get(CalendarCache.Key.of(PROVIDER, 1L, AUG_1, AUG_31, CalendarService.Granularity.DAY,
+                false, false, null), loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void changeDropsOnlyRangesContainingItsDate() {
+        cache.get(daily(PROVIDER, AUG_1, AUG_31), loader);
+        cache.get(daily(PROVIDER, SEP_1, SEP_30), loader);
+        cache.get(daily(OTHER_PROVIDER, AUG_1, AUG_31), loader);
+
+        cache.onAppointmentChanged(booked(PROVIDER, AUG_31.minusDays(10)));
+
+        cache.get(daily(PROVIDER, AUG_1, AUG_31), loader);
+        cache.get(daily(PROVIDER, SEP_1, SEP_30), loader);
+        cache.get(daily(OTHER_PROVIDER, AUG_1, AUG_31), loader);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void seriesChangeDropsTheWholeProvider() {
+        cache.get(daily(PROVIDER, AUG_1, AUG_31), loader);
+        cache.get(daily(PROVIDER, SEP_1, SEP_30), loader);
+
+        cache.onSeriesChanged(new SeriesChangedEvent(UUID.randomUUID(), PROVIDER, UserIds.toUuid(2L)));
+
+        cache.get(daily(PROVIDER, AUG_1, AUG_31), loader);
+        cache.get(daily(PROVIDER, SEP_1, SEP_30), loader);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void loadOverlappingAChangeIsNotStored() {
+        CalendarCache.Key key = daily(PROVIDER, AUG_1, AUG_31);
+        cache.get(key, () -> {
+            // A booking commits while this response is being computed
+            cache.onAppointmentChanged(booked(PROVIDER, AUG_1));
+            return loader.get();
+        });
+
+        cache.get(key, loader);
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,192 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rihal.AppointmentScheduler.AppointmentSchedulerApplication;
+import com.rihal.AppointmentScheduler.dto.CalendarResponse;
+import com.rihal.AppointmentScheduler.model.Appointment;
+import com.rihal.AppointmentScheduler.model.AppointmentSeries;
+import com.rihal.AppointmentScheduler.model.AppointmentStatus;
+import com.rihal.AppointmentScheduler.repository.AppointmentRepository;
+import com.rihal.AppointmentScheduler.repository.AppointmentSeriesRepository;
+
+/**
+ * The calendar views against an in-memory database holding stored appointments (booked
+ * and cancelled), a weekly series and one cancelled occurrence of it.
+ */
+class CalendarServiceTest {
+
+    private static final UUID PROVIDER = UserIds.toUuid(1L);
+    private static final UUID CUSTOMER = UserIds.toUuid(2L);
+    private static final LocalDate START = LocalDate.of(2026, 1, 20);
+    private static final LocalDate END = LocalDate.of(2026, 3, 10);
+
+    private static ConfigurableApplicationContext context;
+    private static CalendarService calendar;
+    private static ObjectMapper objectMapper;
+
+    @BeforeAll
+    static void start() {
+        // Command-line arguments, so they win over application.properties
+        context = new SpringApplicationBuilder(AppointmentSchedulerApplication.class)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:calendar;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--server.port=0");
+        calendar = context.getBean(CalendarService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        AppointmentRepository appointments = context.getBean(AppointmentRepository.class);
+        appointments.save(appointment(PROVIDER, "2026-01-26", "09:00", AppointmentStatus.BOOKED));
+        appointments.save(appointment(PROVIDER, "2026-01-26", "10:00", AppointmentStatus.BOOKED));
+        appointments.save(appointment(PROVIDER, "2026-02-03", "09:00", AppointmentStatus.BOOKED));
+        appointments.save(appointment(PROVIDER, "2026-02-03", "15:00", AppointmentStatus.CANCELLED));
+        appointments.save(appointment(PROVIDER, "2026-02-17", "09:00", AppointmentStatus.CANCELLED));
+        appointments.save(appointment(PROVIDER, "2026-03-02", "11:00", AppointmentStatus.BOOKED));
+        appointments.save(appointment(UserIds.toUuid(3L), "2026-02-03", "09:00", AppointmentStatus.BOOKED));
+
+        // Tuesdays at 14:00 from 2026-01-27 to 2026-03-03, the 2026-02-10 one cancelled
+        AppointmentSeries series = new AppointmentSeries();
+        series.setCustomerId(CUSTOMER);
+        series.setProviderId(PROVIDER);
+        series.setDayOfWeek(DayOfWeek.TUESDAY);
+        series.setStartDate(LocalDate.parse("2026-01-27"));
+        series.setUntilDate(LocalDate.parse("2026-03-03"));
+        series.setIntervalWeeks(1);
+        series.setStartTime(LocalTime.of(14, 0));
+        series.setEndTime(LocalTime.of(14, 30));
+        series = context.getBean(AppointmentSeriesRepository.class).save(series);
+        Appointment cancelled = SeriesOccurrences.occurrence(series, LocalDate.parse("2026-02-10"));
+        cancelled.setStatus(AppointmentStatus.CANCELLED);
+        appointments.save(cancelled);
+    }
+
+    @AfterAll
+    static void stop() {
+        context.close();
+    }
+
+    private static Appointment appointment(UUID providerId, String date, String start, AppointmentStatus status) {
+        Appointment a = BookingService.newAppointment(CUSTOMER, providerId, LocalDate.parse(date),
+                LocalTime.parse(start), LocalTime.parse(start).plusMinutes(30));
+        a.setStatus(status);
+        return a;
+    }
+
+    private static <T> Map<String, Long> totals(CalendarResponse<T> response, ToLongFunction<T> total) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        response.buckets.forEach((key, bucket) -> totals.put(key, total.applyAsLong(bucket)));
+        return totals;
+    }
+
+    @Test
+    void countsMatchTheListedAppointments() {
+        for (boolean includeCancelled : new boolean[] { false, true }) {
+            var daily = calendar.daily(PROVIDER, START, END, includeCancelled);
+            var dailyCounts = calendar.dailyCounts(PROVIDER, START, END, includeCancelled);
+            assertEquals(totals(daily, b -> b.total), totals(dailyCounts, b -> b.total));
+            assertEquals(daily.total, dailyCounts.total);
+
+            var weekly = calendar.weekly(PROVIDER, START, END, includeCancelled, Locale.UK);
+            var weeklyCounts = calendar.weeklyCounts(PROVIDER, START, END, includeCancelled, Locale.UK);
+            assertEquals(totals(weekly, b -> b.total), totals(weeklyCounts, b -> b.total));
+            assertEquals(weekly.total, weeklyCounts.total);
+
+            var monthly = calendar.monthly(PROVIDER, START, END, includeCancelled);
+            var monthlyCounts = calendar.monthlyCounts(PROVIDER, START, END, includeCancelled);
+            assertEquals(totals(monthly, b -> b.total), totals(monthlyCounts, b -> b.total));
+            assertEquals(monthly.total, monthlyCounts.total);
+        }
+    }
+
+    @Test
+    void countsIncludeSeriesOccurrencesAndCancelledRowsOnRequest() {
+        // 4 stored bookings and 5 of the 6 series occurrences
+        assertEquals(9, calendar.dailyCounts(PROVIDER, START, END, false).total);
+        // plus 2 cancelled appointments and the cancelled occurrence
+        assertEquals(12, calendar.dailyCounts(PROVIDER, START, END, true).total);
+        assertEquals(Map.of("2026-01", 3L, "2026-02", 4L, "2026-03", 2L),
+                totals(calendar.monthlyCounts(PROVIDER, START, END, false), b -> b.total));
+    }
+
+    private static JsonNode streamed(CalendarService.Granularity granularity, boolean includeCancelled) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        calendar.write(granularity, PROVIDER, START, END, includeCancelled, Locale.UK, out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private static List<String> keys(JsonNode node) {
+        List<String> keys = new ArrayList<>();
+        node.fieldNames().forEachRemaining(keys::add);
+        return keys;
+    }
+
+    @Test
+    void streamedCalendarIsTheSameJsonAsTheListedOne() throws IOException {
+        for (boolean includeCancelled : new boolean[] { false, true }) {
+            Map<CalendarService.Granularity, Object> listed = Map.of(
+                    CalendarService.Granularity.DAY, calendar.daily(PROVIDER, START, END, includeCancelled),
+                    CalendarService.Granularity.WEEK, calendar.weekly(PROVIDER, START, END, includeCancelled, Locale.UK),
+                    CalendarService.Granularity.MONTH, calendar.monthly(PROVIDER, START, END, includeCancelled));
+            for (var view : listed.entrySet()) {
+                // Through bytes on both sides, so numbers parse to the same node types
+                JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsBytes(view.getValue()));
+                JsonNode actual = streamed(view.getKey(), includeCancelled);
+
+                assertEquals(expected, actual, view.getKey() + ", includeCancelled=" + includeCancelled);
+                assertEquals(keys(expected), keys(actual));
+                assertEquals(keys(expected.get("buckets")), keys(actual.get("buckets")));
+                for (String bucket : keys(expected.get("buckets"))) {
+                    assertEquals(keys(expected.get("buckets").get(bucket)), keys(actual.get("buckets").get(bucket)),
+                            "fields of " + bucket);
+                }
+            }
+        }
+    }
+
+    @Test
+    void streamedSeriesOccurrencesAreMergedInDateOrder() throws IOException {
+        List<String> starts = new ArrayList<>();
+        int occurrences = 0;
+        for (JsonNode bucket : streamed(CalendarService.Granularity.MONTH, false).get("buckets")) {
+            for (JsonNode item : bucket.get("items")) {
+                starts.add(item.get("date").asText() + "T" + item.get("startTime").asText());
+                if (!item.get("seriesId").isNull()) {
+                    occurrences++;
+                }
+            }
+        }
+
+        assertEquals(9, starts.size());
+        assertEquals(5, occurrences);
+        for (int i = 1; i < starts.size(); i++) {
+            assertTrue(starts.get(i - 1).compareTo(starts.get(i)) <= 0, starts.toString());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.rihal.AppointmentScheduler.event.AppointmentChangedEvent;
+import com.rihal.AppointmentScheduler.repository.ChangeVersionRepository;
+
+class ChangeVersionsTest {
+
+    private static final UUID PROVIDER = UserIds.toUuid(1L);
+    private static final UUID CUSTOMER = UserIds.toUuid(2L);
+
+    private final ChangeVersionRepository repository = mock(ChangeVersionRepository.class);
+
+    private ChangeVersions versions(int bumpAttempts, Duration etagLifetime) {
+        return new ChangeVersions(repository, mock(PlatformTransactionManager.class), bumpAttempts, 0, etagLifetime);
+    }
+
+    private static AppointmentChangedEvent changed() {
+        return AppointmentChangedEvent.booked(BookingService.newAppointment(CUSTOMER, PROVIDER,
+                LocalDate.now().plusDays(1), LocalTime.of(9, 0), LocalTime.of(9, 30)));
+    }
+
+    @Test
+    void failedBumpIsRetried() {
+        when(repository.increment("provider:" + PROVIDER))
+                .thenThrow(new QueryTimeoutException("lock wait timeout"))
+                .thenReturn(1);
+        when(repository.increment("customer:" + CUSTOMER)).thenReturn(1);
+
+        versions(3, Duration.ofMinutes(5)).onAppointmentChanged(changed());
+
+        verify(repository, times(2)).increment("provider:" + PROVIDER);
+        verify(repository, times(1)).increment("customer:" + CUSTOMER);
+    }
+
+    @Test
+    void bumpGivesUpAfterTheLastAttempt() {
+        when(repository.increment(anyString())).thenThrow(new QueryTimeoutException("lock wait timeout"));
+
+        versions(3, Duration.ofMinutes(5)).onAppointmentChanged(changed());
+
+        verify(repository, times(3)).increment("provider:" + PROVIDER);
+        verify(repository, times(3)).increment("customer:" + CUSTOMER);
+    }
+
+    @Test
+    void etagChangesWithTheWindowEvenIfTheVersionDoesNot() throws InterruptedException {
+        when(repository.findVersion("provider:" + PROVIDER)).thenReturn(Optional.of(7L));
+        ChangeVersions longLived = versions(3, Duration.ofDays(1));
+        ChangeVersions shortLived = versions(3, Duration.ofMillis(20));
+
+        assertEquals(longLived.providerETag(PROVIDER, "day"), longLived.providerETag(PROVIDER, "day"));
+
+        String before = shortLived.providerETag(PROVIDER, "day");
+        Thread.sleep(50);
+        assertNotEquals(before, shortLived.providerETag(PROVIDER, "day"));
+    }
+}
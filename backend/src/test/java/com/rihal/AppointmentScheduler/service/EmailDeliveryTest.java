@@ -0,0 +1,203 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import com.rihal.AppointmentScheduler.model.User;
+
+class EmailDeliveryTest {
+
+    /**
+     * Just enough SMTP to accept messages from JavaMail. The first {@code failures}
+     * messages are answered with a transient 451, and every message can be slowed down.
+     */
+    static final class SmtpStandIn implements AutoCloseable {
+
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicInteger failures;
+        private final long delayMs;
+        private final ServerSocket server;
+        private final ExecutorService sessions = Executors.newCachedThreadPool();
+
+        SmtpStandIn(int failures, long delayMs) throws IOException {
+            this.failures = new AtomicInteger(failures);
+            this.delayMs = delayMs;
+            this.server = new ServerSocket(0);
+            sessions.execute(this::accept);
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    sessions.execute(() -> session(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void session(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                reply(out, "220 stand-in ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                        reply(out, "250 stand-in");
+                    } else if (command.startsWith("DATA")) {
+                        reply(out, "354 go ahead");
+                        StringBuilder body = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            body.append(line).append('\n');
+                        }
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        Thread.sleep(delayMs);
+                        inFlight.decrementAndGet();
+                        if (failures.getAndDecrement() > 0) {
+                            reply(out, "451 try again later");
+                        } else {
+                            received.add(body.toString());
+                            reply(out, "250 queued");
+                        }
+                    } else if (command.startsWith("QUIT")) {
+                        reply(out, "221 bye");
+                        return;
+                    } else {
+                        reply(out, "250 ok");
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // client went away
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+            sessions.shutdownNow();
+        }
+    }
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    @AfterEach
+    void close() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+
+    private SmtpStandIn smtp(int failures, long delayMs) throws IOException {
+        SmtpStandIn smtp = new SmtpStandIn(failures, delayMs);
+        resources.add(smtp);
+        return smtp;
+    }
+
+    private EmailDelivery delivery(SmtpStandIn smtp, int perHost, int maxAttempts) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(smtp.port());
+        return new EmailDelivery(Optional.of(sender), new NotificationTemplates(100),
+                "no-reply@test.local", perHost, 1000, 1000, maxAttempts, 10, 50);
+    }
+
+    private static NotificationDispatcher.Notification reminder(int i) {
+        return new NotificationDispatcher.Notification("APPOINTMENT_REMINDER", null, null, null,
+                LocalDate.of(2030, 1, 1), LocalTime.of(9, i));
+    }
+
+    private static User customer(int i) {
+        return new User("customer" + i + "@test.local", "x", "Customer " + i, User.Role.CUSTOMER, null);
+    }
+
+    @Test
+    void sendsRenderedEmail() throws Exception {
+        SmtpStandIn smtp = smtp(0, 0);
+
+        delivery(smtp, 4, 3).send(reminder(1), customer(1));
+
+        assertEquals(1, smtp.received.size());
+        assertTrue(smtp.received.get(0).contains("Subject: Appointment Reminder"));
+        assertTrue(smtp.received.get(0).contains("upcoming appointment 2030-01-01 at 09:01."));
+    }
+
+    @Test
+    void retriesTransientFailures() throws Exception {
+        SmtpStandIn smtp = smtp(2, 0);
+
+        delivery(smtp, 4, 3).send(reminder(1), customer(1));
+
+        assertEquals(1, smtp.received.size());
+    }
+
+    @Test
+    void throwsWhenAttemptsRunOut() throws Exception {
+        SmtpStandIn smtp = smtp(Integer.MAX_VALUE, 0);
+        EmailDelivery delivery = delivery(smtp, 4, 3);
+
+        assertThrows(MailException.class, () -> delivery.send(reminder(1), customer(1)));
+        assertEquals(0, smtp.received.size());
+    }
+
+    @Test
+    void limitsConcurrentConversationsPerHost() throws Exception {
+        SmtpStandIn smtp = smtp(0, 100);
+        EmailDelivery delivery = delivery(smtp, 2, 1);
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> sends = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                int n = i;
+                sends.add(threads.submit(() -> {
+                    delivery.send(reminder(n), customer(n));
+                    return null;
+                }));
+            }
+            for (Future<?> send : sends) {
+                send.get(20, TimeUnit.SECONDS);
+            }
+        }
+
+        assertEquals(8, smtp.received.size());
+        assertTrue(smtp.maxInFlight.get() <= 2, "max messages in flight: " + smtp.maxInFlight.get());
+    }
+}
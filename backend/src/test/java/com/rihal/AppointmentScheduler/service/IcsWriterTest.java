@@ -0,0 +1,39 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class IcsWriterTest {
+
+    private static String write(String name, String value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (IcsWriter ics = new IcsWriter(out)) {
+            ics.text(name, value);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void escapesTextValues() throws IOException {
+        assertEquals("DESCRIPTION:Gate 3\\, level 2\\; bring a\\\\b\\nthanks\r\n",
+                write("DESCRIPTION", "Gate 3, level 2; bring a\\b\r\nthanks"));
+    }
+
+    @Test
+    void foldsLongLinesAt75Octets() throws IOException {
+        String value = "é".repeat(100);
+        String written = write("SUMMARY", value);
+
+        for (String line : written.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+        // Unfolding (dropping CRLF + space) restores the line without splitting a character
+        assertEquals("SUMMARY:" + value + "\r\n", written.replace("\r\n ", ""));
+    }
+}
@@ -0,0 +1,142 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rihal.AppointmentScheduler.repository.IdempotencyRecordRepository;
+
+class IdempotencyServiceTest {
+
+    private static final String KEY = "key-1";
+    private static final String SCOPE = "POST /api/bookings by 2 #-";
+    private static final int WAITERS = 4;
+
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+    private final IdempotencyService service = new IdempotencyService(repository, new ObjectMapper(),
+            mock(PlatformTransactionManager.class), 24, 100);
+    private final ExecutorService pool = Executors.newFixedThreadPool(WAITERS + 1);
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final AtomicInteger waiterRuns = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Supplier<ResponseEntity<?>> tracked(Supplier<ResponseEntity<?>> handler) {
+        return () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                sleep(50);
+                return handler.get();
+            } finally {
+                running.decrementAndGet();
+            }
+        };
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Future<ResponseEntity<?>> first(CountDownLatch release, Supplier<ResponseEntity<?>> outcome) {
+        return pool.submit(() -> service.execute(KEY, SCOPE, tracked(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return outcome.get();
+        })));
+    }
+
+    private List<Future<ResponseEntity<?>>> waiters() {
+        List<Future<ResponseEntity<?>>> waiters = new ArrayList<>();
+        for (int i = 0; i < WAITERS; i++) {
+            waiters.add(pool.submit(() -> service.execute(KEY, SCOPE, tracked(() -> {
+                waiterRuns.incrementAndGet();
+                return ResponseEntity.status(HttpStatus.CREATED).body("booked");
+            }))));
+        }
+        // Give the waiters time to queue up behind the first request
+        sleep(200);
+        return waiters;
+    }
+
+    private int replayed(List<Future<ResponseEntity<?>>> waiters) throws Exception {
+        int replayed = 0;
+        for (Future<ResponseEntity<?>> waiter : waiters) {
+            ResponseEntity<?> response = waiter.get(10, TimeUnit.SECONDS);
+            assertEquals(HttpStatus.CREATED, response.getStatusCode());
+            if (response.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)) {
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    @Test
+    void afterAFailureOneWaiterRunsAndTheOthersReplayIt() throws Exception {
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        CountDownLatch release = new CountDownLatch(1);
+        Future<ResponseEntity<?>> first = first(release, () -> {
+            throw new IllegalStateException("database down");
+        });
+        sleep(100);
+        List<Future<ResponseEntity<?>>> waiters = waiters();
+
+        release.countDown();
+
+        try {
+            first.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException expected) {
+            // the first request's own failure
+        }
+        assertEquals(WAITERS - 1, replayed(waiters));
+        assertEquals(1, waiterRuns.get());
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    void afterARejectedResponseTheWaitersRunOneAtATime() throws Exception {
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        CountDownLatch release = new CountDownLatch(1);
+        Future<ResponseEntity<?>> first = first(release, () -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+        sleep(100);
+        List<Future<ResponseEntity<?>>> waiters = waiters();
+
+        release.countDown();
+
+        assertEquals(HttpStatus.CONFLICT, first.get(10, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(WAITERS - 1, replayed(waiters));
+        assertEquals(1, waiterRuns.get());
+        assertEquals(1, maxRunning.get());
+    }
+}
@@ -0,0 +1,111 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rihal.AppointmentScheduler.model.NotificationLog;
+import com.rihal.AppointmentScheduler.repository.NotificationLogRepository;
+
+class NotificationArchiveTest {
+
+    private static final UUID ALICE = UUID.randomUUID();
+    private static final UUID BOB = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    private final NotificationLogRepository repository = mock(NotificationLogRepository.class);
+    private final ClusterLeases leases = mock(ClusterLeases.class);
+
+    private NotificationArchive archive() {
+        when(leases.rebalance(eq(NotificationArchive.LEASE_GROUP), anyInt())).thenReturn(Set.of(0));
+        return new NotificationArchive(repository, leases, new ObjectMapper().findAndRegisterModules(),
+                mock(PlatformTransactionManager.class), directory.toString(), 30, 2);
+    }
+
+    private static NotificationLog entry(UUID recipient, LocalDateTime createdAt) {
+        NotificationLog log = new NotificationLog();
+        log.setId(UUID.randomUUID());
+        log.setRecipientUserId(recipient);
+        log.setEventType("APPOINTMENT_BOOKED");
+        log.setChannel(NotificationLog.Channel.IN_APP);
+        log.setStatus(NotificationLog.Status.SENT);
+        log.setTemplateId("APPOINTMENT_BOOKED");
+        log.setTemplateParams(NotificationTemplates.encode(new Object[] { "2025-01-31", "09:00" }));
+        log.setCreatedAt(createdAt);
+        return log;
+    }
+
+    @Test
+    void movesOldLogsIntoMonthlyFilesAndReadsThemBack() throws IOException {
+        NotificationLog jan = entry(ALICE, LocalDateTime.of(2025, 1, 31, 23, 0));
+        NotificationLog feb = entry(ALICE, LocalDateTime.of(2025, 2, 1, 8, 0));
+        NotificationLog bobs = entry(BOB, LocalDateTime.of(2025, 2, 2, 8, 0));
+        when(repository.findByCreatedAtBeforeOrderByCreatedAtAsc(any(), any()))
+                .thenReturn(List.of(jan, feb))
+                .thenReturn(List.of(bobs))
+                .thenReturn(List.of());
+        NotificationArchive archive = archive();
+
+        assertEquals(3, archive.archiveOldLogs());
+
+        verify(repository).deleteAllByIdInBatch(List.of(jan.getId(), feb.getId()));
+        verify(repository).deleteAllByIdInBatch(List.of(bobs.getId()));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3, files.filter(f -> f.toString().endsWith(".jsonl.gz")).count());
+        }
+        List<NotificationLog> found = archive.find(ALICE, YearMonth.of(2025, 1), YearMonth.of(2025, 3));
+        assertEquals(List.of(jan.getId(), feb.getId()), found.stream().map(NotificationLog::getId).toList());
+        assertEquals("APPOINTMENT_BOOKED", found.get(0).getTemplateId());
+        assertEquals(jan.getTemplateParams(), found.get(0).getTemplateParams());
+        assertEquals(1, archive.find(ALICE, YearMonth.of(2025, 2), YearMonth.of(2025, 2)).size());
+    }
+
+    @Test
+    void chunkArchivedTwiceIsReadOnce() {
+        NotificationLog jan = entry(ALICE, LocalDateTime.of(2025, 1, 10, 9, 0));
+        // As if the delete after the first write had been lost to a crash
+        when(repository.findByCreatedAtBeforeOrderByCreatedAtAsc(any(), any()))
+                .thenReturn(List.of(jan))
+                .thenReturn(List.of(jan))
+                .thenReturn(List.of());
+        NotificationArchive archive = archive();
+
+        archive.archiveOldLogs();
+
+        assertEquals(1, archive.find(ALICE, YearMonth.of(2025, 1), YearMonth.of(2025, 1)).size());
+    }
+
+    @Test
+    void leftoverTempFilesAreDiscarded() throws IOException {
+        Path temp = Files.createFile(directory.resolve("notification-logs-2025-01.1-abc.jsonl.gz.tmp"));
+        when(repository.findByCreatedAtBeforeOrderByCreatedAtAsc(any(), any())).thenReturn(List.of());
+
+        assertEquals(0, archive().archiveOldLogs());
+
+        assertFalse(Files.exists(temp));
+        assertTrue(archive().find(ALICE, YearMonth.of(2025, 1), YearMonth.of(2025, 1)).isEmpty());
+    }
+}
@@ -0,0 +1,130 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.rihal.AppointmentScheduler.model.NotificationLog.Channel;
+import com.rihal.AppointmentScheduler.model.User;
+import com.rihal.AppointmentScheduler.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class NotificationDispatcherTest {
+
+    /** A channel whose sends wait until {@code gate} opens. */
+    private record StubSender(Channel channel, CountDownLatch gate) implements ChannelSender {
+        @Override
+        public boolean canReach(User recipient) {
+            return recipient != null;
+        }
+
+        @Override
+        public void send(NotificationDispatcher.Notification notification, User recipient) throws InterruptedException {
+            gate.await();
+        }
+    }
+
+    private static final UUID CUSTOMER = UserIds.toUuid(2L);
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch smsGateway = new CountDownLatch(1);
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        smsGateway.countDown();
+        dispatcher.shutdown();
+    }
+
+    private NotificationDispatcher dispatcher(String userChannels) {
+        User user = new User("customer@test.local", "x", "Customer", User.Role.CUSTOMER, "+96890000000");
+        user.setNotificationChannels(userChannels);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user));
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("notifications.channels.sms.threads", "1")
+                .withProperty("notifications.channels.sms.queue-capacity", "1");
+        dispatcher = new NotificationDispatcher(
+                List.of(new InAppSender(), new StubSender(Channel.EMAIL, new CountDownLatch(0)),
+                        new StubSender(Channel.SMS, smsGateway)),
+                notificationService, userRepository, meterRegistry, environment, "IN_APP,EMAIL");
+        return dispatcher;
+    }
+
+    @Test
+    void slowChannelDoesNotHoldBackTheOthers() {
+        NotificationDispatcher dispatcher = dispatcher("IN_APP,EMAIL,SMS");
+
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch("APPOINTMENT_BOOKED", CUSTOMER, null, null, "2030-01-01", "09:00");
+        }
+
+        // Everything reaches IN_APP and EMAIL while the SMS gateway is still stuck
+        verify(notificationService, timeout(5000).times(5)).logSent(eq("APPOINTMENT_BOOKED"), eq(Channel.IN_APP),
+                eq(CUSTOMER), any(), any(), any(Object[].class));
+        verify(notificationService, timeout(5000).times(5)).logSent(eq("APPOINTMENT_BOOKED"), eq(Channel.EMAIL),
+                eq(CUSTOMER), any(), any(), any(Object[].class));
+        // One SMS in flight, one queued, the rest turned away by the full queue
+        verify(notificationService, timeout(5000).times(3)).logFailure(eq("APPOINTMENT_BOOKED"), eq(Channel.SMS),
+                eq(CUSTOMER), any(), eq("Channel queue full"), any(), any(Object[].class));
+        assertEquals(1, dispatcher.queueDepth(Channel.SMS));
+        assertEquals(1.0, meterRegistry.get("notifications.channel.queue").tag("channel", "SMS").gauge().value());
+        assertEquals(3.0, meterRegistry.get("notifications.channel.rejected").tag("channel", "SMS").counter().count());
+
+        smsGateway.countDown();
+
+        verify(notificationService, timeout(5000).times(2)).logSent(eq("APPOINTMENT_BOOKED"), eq(Channel.SMS),
+                eq(CUSTOMER), any(), any(), any(Object[].class));
+        assertEquals(5, meterRegistry.get("notifications.channel.latency").tag("channel", "SMS").timers().stream()
+                .mapToLong(t -> t.count()).sum());
+    }
+
+    @Test
+    void usesDefaultChannelsWithoutAPreference() {
+        dispatcher(null).dispatch("APPOINTMENT_BOOKED", CUSTOMER, null, null, "2030-01-01", "09:00");
+
+        verify(notificationService, timeout(5000)).logSent(eq("APPOINTMENT_BOOKED"), eq(Channel.IN_APP),
+                eq(CUSTOMER), any(), any(), any(Object[].class));
+        verify(notificationService, timeout(5000)).logSent(eq("APPOINTMENT_BOOKED"), eq(Channel.EMAIL),
+                eq(CUSTOMER), any(), any(), any(Object[].class));
+        verify(notificationService, after(200).never()).logSent(any(), eq(Channel.SMS), any(), any(), any(),
+                any(Object[].class));
+    }
+
+    @Test
+    void emptyPreferenceTurnsEveryChannelOff() {
+        dispatcher("").dispatch("APPOINTMENT_BOOKED", CUSTOMER, null, null, "2030-01-01", "09:00");
+
+        verify(notificationService, after(200).never()).logSent(any(), any(), any(), any(), any(),
+                any(Object[].class));
+    }
+
+    @Test
+    void unknownRecipientIsOnlyNotifiedInApp() {
+        dispatcher("IN_APP,EMAIL,SMS").dispatch("USER_REGISTERED", null, null, null, "someone@test.local");
+
+        verify(notificationService, timeout(5000)).logSent(eq("USER_REGISTERED"), eq(Channel.IN_APP),
+                eq(null), any(), any(), any(Object[].class));
+        verify(notificationService, after(200).times(1)).logSent(any(), any(), any(), any(), any(),
+                any(Object[].class));
+        verify(notificationService, never()).logFailure(any(), any(), any(), any(), any(), any(),
+                any(Object[].class));
+    }
+}
@@ -0,0 +1,55 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.rihal.AppointmentScheduler.model.NotificationLog;
+
+class NotificationTemplatesTest {
+
+    private final NotificationTemplates templates = new NotificationTemplates(100);
+
+    @Test
+    void rendersPlaceholdersInAnyOrder() {
+        NotificationTemplates.Compiled compiled = NotificationTemplates.Compiled.of("{1} then {0}{0}, done");
+        assertEquals("b then aa, done", compiled.render(new String[] { "a", "b" }));
+        assertEquals(" then , done", compiled.render(new String[0]));
+    }
+
+    @Test
+    void rejectsMalformedPlaceholders() {
+        assertThrows(IllegalStateException.class, () -> NotificationTemplates.Compiled.of("Hello {name}"));
+        assertThrows(IllegalStateException.class, () -> NotificationTemplates.Compiled.of("Hello {0"));
+    }
+
+    @Test
+    void storedParametersRenderLikeTheOriginals() {
+        Object[] params = { LocalDate.of(2030, 1, 1), LocalTime.of(9, 30), null, "" };
+        String encoded = NotificationTemplates.encode(params);
+        assertArrayEquals(new String[] { "2030-01-01", "09:30", "", "" }, NotificationTemplates.decode(encoded));
+
+        NotificationLog log = new NotificationLog();
+        log.setTemplateId("APPOINTMENT_BOOKED");
+        log.setTemplateParams(encoded);
+        NotificationTemplates.Rendered rendered = templates.render(log);
+
+        assertEquals(templates.render("APPOINTMENT_BOOKED", params), rendered);
+        assertEquals("Your appointment on 2030-01-01 at 09:30 is confirmed.", rendered.body());
+        assertSame(rendered, templates.render(log));
+    }
+
+    @Test
+    void logsWithoutTemplateKeepTheirText() {
+        NotificationLog log = new NotificationLog();
+        log.setSubject("Old subject");
+        log.setContent("Old content");
+        assertEquals(new NotificationTemplates.Rendered("Old subject", "Old content"), templates.render(log));
+    }
+}
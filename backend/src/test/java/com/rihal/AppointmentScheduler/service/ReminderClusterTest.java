@@ -0,0 +1,111 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rihal.AppointmentScheduler.AppointmentSchedulerApplication;
+import com.rihal.AppointmentScheduler.repository.ReminderClaimRepository;
+
+/**
+ * Two application contexts sharing one database, as two instances would.
+ */
+class ReminderClusterTest {
+
+    private static final int PARTITIONS = 16;
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    // Command-line arguments, so they win over application.properties
+    private static ConfigurableApplicationContext start(String nodeId) {
+        return new SpringApplicationBuilder(AppointmentSchedulerApplication.class)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:reminder-cluster;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.jpa.show-sql=false",
+                        "--server.port=0",
+                        "--cluster.node-id=" + nodeId,
+                        "--cluster.lease.ttl-ms=60000",
+                        // The test drives rebalancing itself
+                        "--cluster.lease.renew-interval-ms=3600000",
+                        "--reminders.partitions=" + PARTITIONS);
+    }
+
+    private static ReminderService reminders(ConfigurableApplicationContext node) {
+        return node.getBean(ReminderService.class);
+    }
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = start("node-a");
+        nodeB = start("node-b");
+    }
+
+    @AfterEach
+    void stopNodes() {
+        if (nodeB.isActive()) {
+            nodeB.close();
+        }
+        nodeA.close();
+    }
+
+    @Test
+    void partitionsAreSplitWithoutOverlap() {
+        // A took everything on startup; B's membership makes A hand half of it over
+        for (int round = 0; round < 3; round++) {
+            reminders(nodeA).rebalance();
+            reminders(nodeB).rebalance();
+        }
+        Set<Integer> a = reminders(nodeA).ownedPartitions();
+        Set<Integer> b = reminders(nodeB).ownedPartitions();
+
+        assertEquals(PARTITIONS / 2, a.size());
+        assertEquals(PARTITIONS / 2, b.size());
+        Set<Integer> union = new HashSet<>(a);
+        union.addAll(b);
+        assertEquals(IntStream.range(0, PARTITIONS).boxed().collect(Collectors.toSet()), union);
+    }
+
+    @Test
+    void survivorTakesOverReleasedPartitions() {
+        reminders(nodeA).rebalance();
+        reminders(nodeB).rebalance();
+        reminders(nodeA).rebalance();
+        nodeB.close();
+
+        reminders(nodeA).rebalance();
+        assertEquals(PARTITIONS, reminders(nodeA).ownedPartitions().size());
+    }
+
+    @Test
+    void reminderIsClaimedOnce() {
+        String key = "claim-" + System.nanoTime();
+        TransactionTemplate txA = new TransactionTemplate(nodeA.getBean(PlatformTransactionManager.class));
+        TransactionTemplate txB = new TransactionTemplate(nodeB.getBean(PlatformTransactionManager.class));
+
+        txA.executeWithoutResult(s -> nodeA.getBean(ReminderClaimRepository.class)
+                .insert(key, "node-a", LocalDateTime.now()));
+        assertThrows(DataIntegrityViolationException.class, () -> txB.executeWithoutResult(s ->
+                nodeB.getBean(ReminderClaimRepository.class).insert(key, "node-b", LocalDateTime.now())));
+        assertTrue(nodeB.getBean(ReminderClaimRepository.class).existsById(key));
+    }
+}
@@ -0,0 +1,59 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class SlotEngineTest {
+
+    private static int m(String time) {
+        return SlotEngine.toMinute(LocalTime.parse(time));
+    }
+
+    private static int[] sweep(long[] busy, String open, String close, int duration) {
+        int[] out = new int[SlotEngine.maxSlots(m(open), m(close), duration)];
+        int n = SlotEngine.freeStarts(busy, m(open), m(close), duration, out);
+        return Arrays.copyOf(out, n);
+    }
+
+    @Test
+    void emptyDayYieldsFullGrid() {
+        int[] slots = sweep(SlotEngine.newMask(), "09:00", "12:00", 45);
+        assertArrayEquals(new int[] { m("09:00"), m("09:45"), m("10:30"), m("11:15") }, slots);
+    }
+
+    @Test
+    void breaksAndBookingsAreSkippedOnTheGrid() {
+        long[] busy = SlotEngine.newMask();
+        SlotEngine.mark(busy, m("10:30"), m("10:45")); // break
+        SlotEngine.mark(busy, m("09:00"), m("09:30")); // booking
+
+        int[] slots = sweep(busy, "09:00", "12:00", 30);
+
+        assertArrayEquals(new int[] { m("09:30"), m("10:00"), m("11:00"), m("11:30") }, slots);
+    }
+
+    @Test
+    void busyRunAcrossWordBoundaryIsSkipped() {
+        long[] busy = SlotEngine.newMask();
+        SlotEngine.mark(busy, 60, 200);
+
+        assertArrayEquals(new int[] { 0, 200, 240 }, sweep(busy, "00:00", "05:00", 40));
+    }
+
+    @Test
+    void clearRestoresMinutes() {
+        long[] busy = SlotEngine.newMask();
+        SlotEngine.mark(busy, 100, 700);
+        SlotEngine.clear(busy, 120, 650);
+
+        assertFalse(SlotEngine.isClear(busy, 100, 121));
+        assertTrue(SlotEngine.isClear(busy, 120, 650));
+        assertFalse(SlotEngine.isClear(busy, 649, 651));
+    }
+}
@@ -0,0 +1,53 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+class SlotHoldsTest {
+
+    private static final UUID CUSTOMER = UserIds.toUuid(2L);
+    private static final UUID PROVIDER = UserIds.toUuid(1L);
+    private static final LocalDate DATE = LocalDate.now().plusDays(1);
+
+    private final SlotHolds holds = new SlotHolds(new SlotIndex(10), mock(ApplicationEventPublisher.class),
+            300, 2, 1000, 64);
+
+    @AfterEach
+    void shutdown() {
+        holds.shutdown();
+    }
+
+    private SlotHolds.Hold hold(int hour) {
+        return holds.addWithinLimit(CUSTOMER, PROVIDER, DATE, LocalTime.of(hour, 0), LocalTime.of(hour, 30));
+    }
+
+    @Test
+    void customerCannotHoldMoreThanTheLimit() {
+        SlotHolds.Hold first = hold(9);
+        assertNotNull(hold(10));
+
+        assertNull(hold(11));
+
+        // Releasing or confirming a hold makes room again
+        holds.release(first.id());
+        assertNotNull(hold(11));
+    }
+
+    @Test
+    void waitlistOffersDoNotUseUpTheLimit() {
+        holds.add(CUSTOMER, PROVIDER, DATE, LocalTime.of(8, 0), LocalTime.of(8, 30));
+        holds.add(CUSTOMER, PROVIDER, DATE, LocalTime.of(8, 30), LocalTime.of(9, 0));
+
+        assertNotNull(hold(9));
+        assertNotNull(hold(10));
+    }
+}
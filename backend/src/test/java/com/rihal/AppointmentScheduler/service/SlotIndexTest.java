@@ -0,0 +1,67 @@
+package com.rihal.AppointmentScheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SlotIndexTest {
+
+    private static final UUID PROVIDER = UserIds.toUuid(1L);
+
+    private static SlotIndex.Day newDay() {
+        return new SlotIndex.Day(540, 720, 30, SlotEngine.newMask());
+    }
+
+    @Test
+    void loadedDayIsCached() {
+        SlotIndex index = new SlotIndex(10);
+        LocalDate date = LocalDate.now().plusDays(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        SlotIndex.Day first = index.day(PROVIDER, date, () -> { loads.incrementAndGet(); return newDay(); });
+        SlotIndex.Day second = index.day(PROVIDER, date, () -> { loads.incrementAndGet(); return newDay(); });
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void dayChangedWhileLoadingIsNotCached() {
+        SlotIndex index = new SlotIndex(10);
+        LocalDate date = LocalDate.now().plusDays(1);
+
+        // A released hold lands after the loader read the database but before the day is cached
+        SlotIndex.Day raced = index.day(PROVIDER, date, () -> {
+            index.release(PROVIDER, date, 540, 570);
+            return newDay();
+        });
+        SlotIndex.Day reloaded = index.day(PROVIDER, date, SlotIndexTest::newDay);
+
+        assertNotSame(raced, reloaded);
+        assertSame(reloaded, index.day(PROVIDER, date, SlotIndexTest::newDay));
+    }
+
+    @Test
+    void fullIndexKeepsMostDays() {
+        SlotIndex index = new SlotIndex(20);
+        LocalDate today = LocalDate.now();
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 21; i++) {
+            index.day(PROVIDER, today.plusDays(i), SlotIndexTest::newDay);
+        }
+
+        for (int i = 0; i < 21; i++) {
+            index.day(PROVIDER, today.plusDays(i), () -> { loads.incrementAndGet(); return newDay(); });
+        }
+
+        // Filling up drops a tenth of the days at a time, not all of them
+        assertTrue(loads.get() < 10, "reloaded " + loads.get() + " days");
+    }
+}
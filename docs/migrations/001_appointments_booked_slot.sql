@@ -0,0 +1,30 @@
+-- Moves the appointments unique constraint from (provider_id, date, start_time) to
+-- (provider_id, date, booked_slot), so a cancelled slot can be booked again.
+--
+-- spring.jpa.hibernate.ddl-auto=update adds the booked_slot column and the new unique
+-- constraint on the first start, but it neither drops the old constraint nor fills the
+-- column for rows that already exist. Run this once against MySQL after that start.
+-- It is safe to run again.
+
+-- 1. Existing bookings get their slot, so the new constraint protects them too.
+--    The old constraint still holds at this point, so this cannot create duplicates.
+UPDATE appointments
+   SET booked_slot = start_time
+ WHERE status = 'BOOKED'
+   AND booked_slot IS NULL;
+
+-- 2. Drop the old constraint. Hibernate generated its name, so look it up by its columns.
+SET @old_constraint = NULL;
+SELECT index_name INTO @old_constraint
+  FROM information_schema.statistics
+ WHERE table_schema = DATABASE()
+   AND table_name = 'appointments'
+   AND non_unique = 0
+ GROUP BY index_name
+HAVING GROUP_CONCAT(column_name ORDER BY seq_in_index) = 'provider_id,date,start_time'
+ LIMIT 1;
+SET @drop_old = IF(@old_constraint IS NULL, 'DO 0',
+                   CONCAT('ALTER TABLE appointments DROP INDEX `', @old_constraint, '`'));
+PREPARE drop_old FROM @drop_old;
+EXECUTE drop_old;
+DEALLOCATE PREPARE drop_old;